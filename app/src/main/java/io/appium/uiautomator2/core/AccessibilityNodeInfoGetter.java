@@ -22,8 +22,10 @@ import android.support.test.uiautomator.UiObject2;
 import android.view.accessibility.AccessibilityNodeInfo;
 
 import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
+import io.appium.uiautomator2.utils.Logger;
 import io.appium.uiautomator2.utils.ReflectionUtils;
 
+import static io.appium.uiautomator2.utils.ReflectionUtils.getField;
 import static io.appium.uiautomator2.utils.ReflectionUtils.invoke;
 import static io.appium.uiautomator2.utils.ReflectionUtils.method;
 
@@ -53,6 +55,25 @@ public abstract class AccessibilityNodeInfoGetter {
         throw new UiAutomator2Exception("Unknown object type: " + object.getClass().getName());
     }
 
+    /**
+     * Gets the {@link AccessibilityNodeInfo} the given {@link UiObject2} has been found for
+     * without refreshing it
+     *
+     * @return the node or null if the object is not a {@link UiObject2} or the node is unknown
+     */
+    @Nullable
+    public static AccessibilityNodeInfo cachedFromUiObject(Object object) {
+        if (!(object instanceof UiObject2)) {
+            return null;
+        }
+        try {
+            return (AccessibilityNodeInfo) getField(UiObject2.class, "mCachedNode", object);
+        } catch (UiAutomator2Exception e) {
+            Logger.debug("Unable to get the node of the object: " + e.getMessage());
+            return null;
+        }
+    }
+
     @Nullable
     public static AccessibilityNodeInfo fromUiObjectDefaultTimeout(Object object) {
         long timeout = TIME_IN_MS;
@@ -0,0 +1,183 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.handler;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.appium.uiautomator2.handler.request.SafeRequestHandler;
+import io.appium.uiautomator2.http.AppiumResponse;
+import io.appium.uiautomator2.http.AsyncResponseValue;
+import io.appium.uiautomator2.http.IHttpRequest;
+import io.appium.uiautomator2.http.RawResponseValue;
+import io.appium.uiautomator2.http.impl.InternalHttpRequest;
+import io.appium.uiautomator2.server.AppiumServlet;
+import io.appium.uiautomator2.server.WDStatus;
+import io.appium.uiautomator2.utils.CancellationToken;
+import io.appium.uiautomator2.utils.Logger;
+
+/**
+ * Executes several commands in a single round trip.
+ * <p>
+ * The payload is {"commands": [{"method": "POST", "path": "/element", "body": {...}}, ...],
+ * "stopOnError": true}. Paths, which do not start with /wd/hub, are relative
+ * to the current session. Path and body strings might reference elements found by
+ * the previous commands: ${N} is replaced with the id of the element returned by
+ * the N-th command and ${N[K]} with the id of the K-th element of the list returned by it.
+ * <p>
+ * The response value is the list of {"status": ..., "value": ...} results of executed commands.
+ * If stopOnError is true (default) then the commands after the first failed one are skipped.
+ * Commands, whose results are not JSON values, like event streams or metrics, cannot be batched.
+ * The remaining commands are not executed once the batch request has been cancelled.
+ */
+public class Batch extends SafeRequestHandler {
+    private static final Pattern REFERENCE_PATTERN = Pattern.compile("\\$\\{(\\d+)(?:\\[(\\d+)\\])?\\}");
+    private static final String ELEMENT_KEY = "ELEMENT";
+    private static final String BASE_PATH = "/wd/hub";
+
+    private final AppiumServlet servlet;
+
+    public Batch(String mappedUri, AppiumServlet servlet) {
+        super(mappedUri);
+        this.servlet = servlet;
+    }
+
+    @Override
+    protected AppiumResponse safeHandle(IHttpRequest request) throws JSONException {
+        final JSONObject payload = getPayload(request);
+        final JSONArray commands = payload.getJSONArray("commands");
+        final boolean stopOnError = payload.optBoolean("stopOnError", true);
+        final String sessionId = getSessionId(request);
+        Logger.info(String.format("Batch command with %s sub-commands", commands.length()));
+
+        final List<AppiumResponse> results = new ArrayList<>();
+        final JSONArray value = new JSONArray();
+        for (int i = 0; i < commands.length(); i++) {
+            // nobody waits for the results of the rest once the client has gone
+            request.cancellationToken().throwIfCancelled();
+            AppiumResponse result = execute(request, sessionId, commands.getJSONObject(i), results);
+            results.add(result);
+            value.put(new JSONObject()
+                    .put("status", result.getStatus())
+                    .put("value", result.getValue() == null ? JSONObject.NULL : result.getValue()));
+            if (stopOnError && result.getStatus() != WDStatus.SUCCESS.code()) {
+                Logger.info(String.format("Sub-command #%s has failed. Skipping the rest", i));
+                break;
+            }
+        }
+        return new AppiumResponse(sessionId, WDStatus.SUCCESS, value);
+    }
+
+    private AppiumResponse execute(IHttpRequest batchRequest, String sessionId, JSONObject command,
+                                   List<AppiumResponse> previousResults) throws JSONException {
+        final String method = command.getString("method").toUpperCase();
+        final JSONObject body;
+        final String path;
+        try {
+            path = resolveReferences(toAbsolutePath(sessionId, command.getString("path")),
+                    previousResults);
+            body = (JSONObject) resolveReferences(command.optJSONObject("body"), previousResults);
+        } catch (IllegalArgumentException e) {
+            return new AppiumResponse(sessionId, WDStatus.UNKNOWN_ERROR, e.getMessage());
+        }
+        Logger.info(String.format("Executing batch sub-command %s %s", method, path));
+        AppiumResponse result = servlet.dispatch(new InternalHttpRequest(method, path, body,
+                new CancellationToken(batchRequest.cancellationToken())));
+        if (result.getValue() instanceof AsyncResponseValue
+                || result.getValue() instanceof RawResponseValue) {
+            return new AppiumResponse(sessionId, WDStatus.UNKNOWN_ERROR, String.format(
+                    "The result of %s %s cannot be included in the batch response", method, path));
+        }
+        return result;
+    }
+
+    private static String toAbsolutePath(String sessionId, String path) {
+        if (path.startsWith(BASE_PATH)) {
+            return path;
+        }
+        return BASE_PATH + "/session/" + sessionId + (path.startsWith("/") ? "" : "/") + path;
+    }
+
+    private static Object resolveReferences(Object value, List<AppiumResponse> previousResults)
+            throws JSONException {
+        if (value instanceof String) {
+            return resolveReferences((String) value, previousResults);
+        }
+        if (value instanceof JSONObject) {
+            JSONObject source = (JSONObject) value;
+            JSONObject result = new JSONObject();
+            Iterator<String> keys = source.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                result.put(key, resolveReferences(source.get(key), previousResults));
+            }
+            return result;
+        }
+        if (value instanceof JSONArray) {
+            JSONArray source = (JSONArray) value;
+            JSONArray result = new JSONArray();
+            for (int i = 0; i < source.length(); i++) {
+                result.put(resolveReferences(source.get(i), previousResults));
+            }
+            return result;
+        }
+        return value;
+    }
+
+    private static String resolveReferences(String value, List<AppiumResponse> previousResults) {
+        Matcher matcher = REFERENCE_PATTERN.matcher(value);
+        if (!matcher.find()) {
+            return value;
+        }
+        StringBuffer result = new StringBuffer();
+        do {
+            int commandIndex = Integer.parseInt(matcher.group(1));
+            Integer elementIndex = matcher.group(2) == null ? null : Integer.parseInt(matcher.group(2));
+            matcher.appendReplacement(result, Matcher.quoteReplacement(
+                    getElementId(previousResults, commandIndex, elementIndex, matcher.group())));
+        } while (matcher.find());
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private static String getElementId(List<AppiumResponse> previousResults, int commandIndex,
+                                       Integer elementIndex, String reference) {
+        if (commandIndex >= previousResults.size()) {
+            throw new IllegalArgumentException(String.format(
+                    "%s refers to a command, which has not been executed yet", reference));
+        }
+        AppiumResponse result = previousResults.get(commandIndex);
+        Object element = result.getValue();
+        if (elementIndex != null) {
+            element = element instanceof JSONArray
+                    ? ((JSONArray) element).opt(elementIndex)
+                    : null;
+        }
+        if (result.getStatus() != WDStatus.SUCCESS.code() || !(element instanceof JSONObject)
+                || !((JSONObject) element).has(ELEMENT_KEY)) {
+            throw new IllegalArgumentException(String.format(
+                    "%s does not refer to an element found by a previous command", reference));
+        }
+        return ((JSONObject) element).optString(ELEMENT_KEY);
+    }
+}
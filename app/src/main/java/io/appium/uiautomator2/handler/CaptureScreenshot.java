@@ -3,9 +3,11 @@ package io.appium.uiautomator2.handler;
 import io.appium.uiautomator2.handler.request.SafeRequestHandler;
 import io.appium.uiautomator2.http.AppiumResponse;
 import io.appium.uiautomator2.http.IHttpRequest;
+import io.appium.uiautomator2.model.Screenshot;
 import io.appium.uiautomator2.server.WDStatus;
 import io.appium.uiautomator2.utils.Logger;
 import io.appium.uiautomator2.utils.ScreenshotHelper;
+import io.netty.handler.codec.http.HttpHeaders;
 
 public class CaptureScreenshot extends SafeRequestHandler {
 
@@ -13,10 +15,16 @@ public class CaptureScreenshot extends SafeRequestHandler {
         super(mappedUri);
     }
 
+    @Override
+    public boolean isCoalescable() {
+        return true;
+    }
+
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) {
         Logger.info("Capture screenshot command");
-        final String result = ScreenshotHelper.takeScreenshot();
-        return new AppiumResponse(getSessionId(request), WDStatus.SUCCESS, result);
+        final Screenshot screenshot = ScreenshotHelper.takeScreenshot(null,
+                Screenshot.negotiateMimeType(request.header(HttpHeaders.Names.ACCEPT)));
+        return new AppiumResponse(getSessionId(request), WDStatus.SUCCESS, screenshot);
     }
 }
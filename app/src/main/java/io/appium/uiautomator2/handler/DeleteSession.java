@@ -6,6 +6,7 @@ import io.appium.uiautomator2.http.IHttpRequest;
 import io.appium.uiautomator2.model.NotificationListener;
 import io.appium.uiautomator2.server.ServerInstrumentation;
 import io.appium.uiautomator2.server.WDStatus;
+import io.appium.uiautomator2.server.metrics.FlightRecorder;
 import io.appium.uiautomator2.utils.Logger;
 
 public class DeleteSession extends SafeRequestHandler {
@@ -19,6 +20,7 @@ public class DeleteSession extends SafeRequestHandler {
         Logger.info("Delete session command");
         String sessionId = getSessionId(request);
         NotificationListener.getInstance().stop();
+        FlightRecorder.getInstance().dumpToFile();
         ServerInstrumentation.getInstance().stopServer();
         return new AppiumResponse(sessionId, WDStatus.SUCCESS, "Session deleted");
     }
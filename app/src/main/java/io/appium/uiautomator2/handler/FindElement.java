@@ -10,7 +10,6 @@ import org.json.JSONObject;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 import java.util.regex.Pattern;
 
 import io.appium.uiautomator2.common.exceptions.ElementNotFoundException;
@@ -36,7 +35,6 @@ import io.appium.uiautomator2.utils.NodeInfoList;
 import io.appium.uiautomator2.utils.UiAutomatorParser;
 
 import static io.appium.uiautomator2.model.internal.CustomUiDevice.getInstance;
-import static io.appium.uiautomator2.utils.Device.getAndroidElement;
 
 public class FindElement extends SafeRequestHandler {
 
@@ -97,7 +95,6 @@ public class FindElement extends SafeRequestHandler {
     protected AppiumResponse safeHandle(IHttpRequest request) throws JSONException,
             UiObjectNotFoundException {
         Logger.info("Find element command");
-        KnownElements ke = new KnownElements();
         final JSONObject payload = getPayload(request);
         final String method = payload.getString("strategy");
         final String selector = payload.getString("selector");
@@ -120,9 +117,7 @@ public class FindElement extends SafeRequestHandler {
             return new AppiumResponse(getSessionId(request), WDStatus.NO_SUCH_ELEMENT);
         }
 
-        String id = UUID.randomUUID().toString();
-        AndroidElement androidElement = getAndroidElement(id, element, by);
-        ke.add(androidElement);
+        AndroidElement androidElement = KnownElements.register(element, by);
         JSONObject result = ElementHelpers.toJSON(androidElement);
         return new AppiumResponse(getSessionId(request), WDStatus.SUCCESS, result);
     }
@@ -11,7 +11,6 @@ import org.json.JSONObject;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 import java.util.regex.Pattern;
 
 import io.appium.uiautomator2.common.exceptions.ElementNotFoundException;
@@ -25,9 +24,11 @@ import io.appium.uiautomator2.http.IHttpRequest;
 import io.appium.uiautomator2.model.AndroidElement;
 import io.appium.uiautomator2.model.By;
 import io.appium.uiautomator2.model.By.ById;
+import io.appium.uiautomator2.model.ElementPath;
 import io.appium.uiautomator2.model.KnownElements;
 import io.appium.uiautomator2.model.XPathFinder;
 import io.appium.uiautomator2.model.internal.NativeAndroidBySelector;
+import io.appium.uiautomator2.utils.CancellationToken;
 import io.appium.uiautomator2.utils.Device;
 import io.appium.uiautomator2.utils.ElementHelpers;
 import io.appium.uiautomator2.utils.Logger;
@@ -36,7 +37,6 @@ import io.appium.uiautomator2.utils.UiAutomatorParser;
 
 import static io.appium.uiautomator2.handler.FindElement.getElementLocator;
 import static io.appium.uiautomator2.model.internal.CustomUiDevice.getInstance;
-import static io.appium.uiautomator2.utils.Device.getAndroidElement;
 import static io.appium.uiautomator2.utils.Device.getUiDevice;
 
 public class FindElements extends SafeRequestHandler {
@@ -68,7 +68,6 @@ public class FindElements extends SafeRequestHandler {
             UiObjectNotFoundException {
         JSONArray result = new JSONArray();
         Logger.info("Find elements command");
-        KnownElements ke = new KnownElements();
         JSONObject payload = getPayload(request);
         String method = payload.getString("strategy");
         String selector = payload.getString("selector");
@@ -84,10 +83,9 @@ public class FindElements extends SafeRequestHandler {
                 elements = this.findElements(by);
             }
 
+            ElementPath.Cache paths = new ElementPath.Cache();
             for (Object element : elements) {
-                String id = UUID.randomUUID().toString();
-                AndroidElement androidElement = getAndroidElement(id, element, by);
-                ke.add(androidElement);
+                AndroidElement androidElement = KnownElements.register(element, by, paths);
                 JSONObject jsonElement = ElementHelpers.toJSON(androidElement);
                 result.put(jsonElement);
             }
@@ -160,6 +158,7 @@ public class FindElements extends SafeRequestHandler {
             throws InvalidSelectorException, ClassNotFoundException {
         List<Object> foundElements = new ArrayList<>();
         for (final UiSelector sel : selectors) {
+            CancellationToken.checkCurrent();
             // With multiple selectors, we expect that some elements may not
             // exist.
             try {
@@ -210,6 +209,8 @@ public class FindElements extends SafeRequestHandler {
         UiSelector tmp;
         int counter = 0;
         while (keepSearching) {
+            // every lookup waits for the selector, so long lists take a while
+            CancellationToken.checkCurrent();
             if (baseEl == null) {
                 Logger.debug("Element[" + key + "] is null: (" + counter + ")");
 
@@ -9,7 +9,6 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.List;
-import java.util.UUID;
 
 import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
 import io.appium.uiautomator2.core.AccessibilityNodeInfoGetter;
@@ -21,8 +20,6 @@ import io.appium.uiautomator2.model.KnownElements;
 import io.appium.uiautomator2.server.WDStatus;
 import io.appium.uiautomator2.utils.Logger;
 
-import static io.appium.uiautomator2.utils.Device.getAndroidElement;
-
 /**
  * This method return first visible element inside provided element
  */
@@ -32,6 +29,11 @@ public class FirstVisibleView extends SafeRequestHandler {
         super(mappedUri);
     }
 
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) throws UiObjectNotFoundException,
             JSONException {
@@ -42,7 +44,6 @@ public class FirstVisibleView extends SafeRequestHandler {
         if (element == null) {
             return new AppiumResponse(getSessionId(request), WDStatus.NO_SUCH_ELEMENT);
         }
-        KnownElements ke = new KnownElements();
         Object firstObject = null;
         if (element.getUiObject() instanceof UiObject) {
             UiObject uiObject = (UiObject) element.getUiObject();
@@ -77,11 +78,9 @@ public class FirstVisibleView extends SafeRequestHandler {
             return new AppiumResponse(getSessionId(request), WDStatus.NO_SUCH_ELEMENT);
         }
 
-        String id = UUID.randomUUID().toString();
-        AndroidElement androidElement = getAndroidElement(id, firstObject, null);
-        ke.add(androidElement);
+        AndroidElement androidElement = KnownElements.register(firstObject, null);
         JSONObject result = new JSONObject();
-        result.put("ELEMENT", id);
+        result.put("ELEMENT", androidElement.getId());
         return new AppiumResponse(getSessionId(request), WDStatus.SUCCESS, result);
     }
 }
@@ -36,6 +36,11 @@ public class GetDeviceSize extends SafeRequestHandler {
         super(mappedUri);
     }
 
+    @Override
+    public boolean isCoalescable() {
+        return true;
+    }
+
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) throws JSONException {
         Logger.info("Get window size of the device");
@@ -50,6 +50,11 @@ public class GetElementAttribute extends SafeRequestHandler {
         super(mappedUri);
     }
 
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
     public static String getElementAttributeValue(AndroidElement element, String attributeName) throws NoAttributeFoundException, UiObjectNotFoundException, ReflectiveOperationException {
         if (Arrays.asList("name", "contentDescription", "text", "className", "resourceId").contains(attributeName)) {
             return element.getStringAttribute(attributeName);
@@ -8,9 +8,11 @@ import io.appium.uiautomator2.http.AppiumResponse;
 import io.appium.uiautomator2.http.IHttpRequest;
 import io.appium.uiautomator2.model.AndroidElement;
 import io.appium.uiautomator2.model.KnownElements;
+import io.appium.uiautomator2.model.Screenshot;
 import io.appium.uiautomator2.server.WDStatus;
 import io.appium.uiautomator2.utils.Logger;
 import io.appium.uiautomator2.utils.ScreenshotHelper;
+import io.netty.handler.codec.http.HttpHeaders;
 
 public class GetElementScreenshot extends SafeRequestHandler {
 
@@ -18,6 +20,11 @@ public class GetElementScreenshot extends SafeRequestHandler {
         super(mappedUri);
     }
 
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) throws UiObjectNotFoundException {
         Logger.info("Capture screenshot of an element command");
@@ -27,7 +34,8 @@ public class GetElementScreenshot extends SafeRequestHandler {
             return new AppiumResponse(getSessionId(request), WDStatus.NO_SUCH_ELEMENT);
         }
         final Rect elementRect = element.getBounds();
-        final String result = ScreenshotHelper.takeScreenshot(elementRect);
-        return new AppiumResponse(getSessionId(request), WDStatus.SUCCESS, result);
+        final Screenshot screenshot = ScreenshotHelper.takeScreenshot(elementRect,
+                Screenshot.negotiateMimeType(request.header(HttpHeaders.Names.ACCEPT)));
+        return new AppiumResponse(getSessionId(request), WDStatus.SUCCESS, screenshot);
     }
 }
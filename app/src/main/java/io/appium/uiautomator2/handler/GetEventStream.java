@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appium.uiautomator2.handler;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.appium.uiautomator2.handler.request.SafeRequestHandler;
+import io.appium.uiautomator2.http.AppiumResponse;
+import io.appium.uiautomator2.http.IHttpRequest;
+import io.appium.uiautomator2.model.NotificationListener;
+import io.appium.uiautomator2.model.UiEvent;
+import io.appium.uiautomator2.model.UiEventStream;
+import io.appium.uiautomator2.server.WDStatus;
+import io.appium.uiautomator2.utils.Logger;
+import io.netty.handler.codec.http.QueryStringDecoder;
+
+/**
+ * Subscribes the client to the stream of UI events sent as text/event-stream.
+ * Events might be filtered by the comma separated "types" and "packages" query parameters.
+ */
+public class GetEventStream extends SafeRequestHandler {
+
+    public GetEventStream(String mappedUri) {
+        super(mappedUri);
+    }
+
+    @Override
+    public boolean isUiCommand() {
+        return false;
+    }
+
+    @Override
+    protected AppiumResponse safeHandle(IHttpRequest request) {
+        Map<String, List<String>> parameters = new QueryStringDecoder(request.uri()).parameters();
+        Set<String> types = getValues(parameters, "types");
+        for (String type : types) {
+            if (!UiEvent.TYPES.contains(type)) {
+                return new AppiumResponse(getSessionId(request), WDStatus.UNKNOWN_ERROR,
+                        String.format("Unknown event type '%s'. Only %s are supported", type, UiEvent.TYPES));
+            }
+        }
+        if (!NotificationListener.getInstance().isListening()) {
+            return new AppiumResponse(getSessionId(request), WDStatus.UNKNOWN_ERROR,
+                    "UI events are only captured while the notification listener is running. "
+                            + "Enable it with the 'enableNotificationListener' setting");
+        }
+        Set<String> packages = getValues(parameters, "packages");
+        Logger.info(String.format("Subscribing to UI events (types: %s, packages: %s)", types, packages));
+        return new AppiumResponse(getSessionId(request), WDStatus.SUCCESS,
+                new UiEventStream.Subscriber(types, packages,
+                        request.cancellationToken().withoutDeadline()));
+    }
+
+    private static Set<String> getValues(Map<String, List<String>> parameters, String name) {
+        List<String> values = parameters.get(name);
+        if (values == null) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new HashSet<>();
+        for (String value : values) {
+            for (String item : value.split(",")) {
+                if (!item.trim().isEmpty()) {
+                    result.add(item.trim());
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.handler;
+
+import io.appium.uiautomator2.handler.request.SafeRequestHandler;
+import io.appium.uiautomator2.http.AppiumResponse;
+import io.appium.uiautomator2.http.IHttpRequest;
+import io.appium.uiautomator2.model.KnownElements;
+import io.appium.uiautomator2.server.AppiumServlet;
+import io.appium.uiautomator2.server.WDStatus;
+import io.appium.uiautomator2.server.metrics.PrometheusMetrics;
+
+/**
+ * Exposes request, command queue and element cache metrics in the Prometheus text format.
+ */
+public class GetMetrics extends SafeRequestHandler {
+    private final AppiumServlet servlet;
+
+    public GetMetrics(String mappedUri, AppiumServlet servlet) {
+        super(mappedUri);
+        this.servlet = servlet;
+    }
+
+    @Override
+    public boolean isUiCommand() {
+        return false;
+    }
+
+    @Override
+    protected AppiumResponse safeHandle(IHttpRequest request) {
+        return new AppiumResponse(getSessionId(request), WDStatus.SUCCESS,
+                new PrometheusMetrics(servlet.getMetricsRegistry(), servlet.getCommandExecutor(),
+                        KnownElements.getRegistry()));
+    }
+}
@@ -35,6 +35,11 @@ public class GetName extends SafeRequestHandler {
         super(mappedUri);
     }
 
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) throws UiObjectNotFoundException {
         Logger.info("Get Name of element command");
@@ -39,6 +39,11 @@ public class GetRect extends SafeRequestHandler {
         super(mappedUri);
     }
 
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
     public static JSONObject getElementRectJSON(AndroidElement element) throws UiObjectNotFoundException, JSONException {
         final JSONObject result = new JSONObject();
         final Rect rect = element.getBounds();
@@ -16,6 +16,11 @@ public class GetSessionDetails extends SafeRequestHandler {
         super(mappedUri);
     }
 
+    @Override
+    public boolean isUiCommand() {
+        return false;
+    }
+
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) throws JSONException {
         Session session = AppiumUiAutomatorDriver.getInstance().getSession();
@@ -22,6 +22,11 @@ public class GetSettings extends SafeRequestHandler {
         super(mappedUri);
     }
 
+    @Override
+    public boolean isUiCommand() {
+        return false;
+    }
+
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) throws JSONException {
         Logger.debug("Get settings:");
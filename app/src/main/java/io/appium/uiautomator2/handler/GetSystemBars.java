@@ -18,6 +18,11 @@ public class GetSystemBars extends SafeRequestHandler {
         super(mappedUri);
     }
 
+    @Override
+    public boolean isCoalescable() {
+        return true;
+    }
+
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) throws JSONException {
         Logger.info("Get status bar height of the device");
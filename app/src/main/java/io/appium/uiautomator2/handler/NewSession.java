@@ -7,6 +7,7 @@ import io.appium.uiautomator2.handler.request.SafeRequestHandler;
 import io.appium.uiautomator2.http.AppiumResponse;
 import io.appium.uiautomator2.http.IHttpRequest;
 import io.appium.uiautomator2.model.AppiumUiAutomatorDriver;
+import io.appium.uiautomator2.model.HierarchyGeneration;
 import io.appium.uiautomator2.model.Session;
 import io.appium.uiautomator2.server.WDStatus;
 import io.appium.uiautomator2.utils.Logger;
@@ -20,6 +21,8 @@ public class NewSession extends SafeRequestHandler {
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) throws JSONException {
         Session.capabilities = getPayload(request, "desiredCapabilities");
+        // capabilities might change the page source as well
+        HierarchyGeneration.getInstance().increment();
         String sessionID = AppiumUiAutomatorDriver.getInstance().initializeSession();
         Logger.info("Session Created with SessionID:" + sessionID);
         return new AppiumResponse(sessionID, WDStatus.SUCCESS, "Created Session");
@@ -13,6 +13,7 @@ import io.appium.uiautomator2.http.IHttpRequest;
 import io.appium.uiautomator2.model.OrientationEnum;
 import io.appium.uiautomator2.model.internal.CustomUiDevice;
 import io.appium.uiautomator2.server.WDStatus;
+import io.appium.uiautomator2.utils.CancellationToken;
 import io.appium.uiautomator2.utils.Logger;
 
 import static io.appium.uiautomator2.utils.Device.getUiDevice;
@@ -132,6 +133,7 @@ public class RotateScreen extends SafeRequestHandler {
         final long then = System.currentTimeMillis();
         long now = then;
         while (!current.equals(desired) && now - then < TIMEOUT) {
+            CancellationToken.checkCurrent();
             Thread.sleep(100);
             now = System.currentTimeMillis();
             current = OrientationEnum.fromInteger(getUiDevice().getDisplayRotation());
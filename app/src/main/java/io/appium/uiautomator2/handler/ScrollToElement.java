@@ -11,6 +11,7 @@ import io.appium.uiautomator2.model.AndroidElement;
 import io.appium.uiautomator2.model.KnownElements;
 import io.appium.uiautomator2.server.AppiumServlet;
 import io.appium.uiautomator2.server.WDStatus;
+import io.appium.uiautomator2.utils.CancellationToken;
 import io.appium.uiautomator2.utils.Logger;
 
 public class ScrollToElement extends SafeRequestHandler {
@@ -96,6 +97,7 @@ public class ScrollToElement extends SafeRequestHandler {
 
 
             for (int x = 0; x < getMaxSearchSwipes(); x++) {
+                CancellationToken.checkCurrent();
                 if (!scrollForward()) {
                     return false;
                 }
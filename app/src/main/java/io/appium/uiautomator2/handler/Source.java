@@ -2,26 +2,26 @@ package io.appium.uiautomator2.handler;
 
 import org.w3c.dom.Document;
 
-import java.io.StringWriter;
-
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
-import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 
 import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
 import io.appium.uiautomator2.handler.request.SafeRequestHandler;
 import io.appium.uiautomator2.http.AppiumResponse;
 import io.appium.uiautomator2.http.IHttpRequest;
+import io.appium.uiautomator2.http.NotModified;
+import io.appium.uiautomator2.model.HierarchyGeneration;
+import io.appium.uiautomator2.model.PageSource;
 import io.appium.uiautomator2.server.WDStatus;
 import io.appium.uiautomator2.utils.Logger;
 import io.appium.uiautomator2.utils.ReflectionUtils;
 import io.appium.uiautomator2.utils.XMLHierarchy;
 
+import io.netty.handler.codec.http.HttpHeaders;
+
 /**
- * Get page source. Return as string of XML doc
+ * Get page source. Return as string of XML doc, which is streamed to the client
  */
 public class Source extends SafeRequestHandler {
 
@@ -29,25 +29,38 @@ public class Source extends SafeRequestHandler {
         super(mappedUri);
     }
 
+    @Override
+    public boolean isCoalescable() {
+        return true;
+    }
+
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) {
         try {
+            HierarchyGeneration generation = HierarchyGeneration.getInstance();
+            String entityTag = generation.getEntityTag();
+            if (entityTag != null && NotModified.isMatching(
+                    request.header(HttpHeaders.Names.IF_NONE_MATCH), entityTag)) {
+                // the UI has not changed, so the tree does not even need to be walked
+                Logger.info("The page source has not been modified since " + entityTag);
+                return new AppiumResponse(getSessionId(request), WDStatus.SUCCESS,
+                        new NotModified(entityTag));
+            }
             ReflectionUtils.clearAccessibilityCache();
 
             final Document doc = (Document) XMLHierarchy.getFormattedXMLDoc();
+            if (entityTag != null && !entityTag.equals(generation.getEntityTag())) {
+                // the UI has changed during the dump, so the tag might not describe it
+                entityTag = null;
+            }
             final TransformerFactory tf = TransformerFactory.newInstance();
-            final StringWriter writer = new StringWriter();
             Transformer transformer = tf.newTransformer();
-            transformer.transform(new DOMSource(doc), new StreamResult(writer));
-            String xmlString = writer.getBuffer().toString();
-            return new AppiumResponse(getSessionId(request), WDStatus.SUCCESS, xmlString);
+            return new AppiumResponse(getSessionId(request), WDStatus.SUCCESS,
+                    new PageSource(doc, transformer, entityTag));
 
         } catch (final TransformerConfigurationException e) {
             Logger.error("Unable to handle the request:" + e);
             return new AppiumResponse(getSessionId(request), WDStatus.UNKNOWN_ERROR, "Something went terribly wrong while converting xml document to string:" + e);
-        } catch (final TransformerException e) {
-            Logger.error("Unable to handle the request:" + e);
-            return new AppiumResponse(getSessionId(request), WDStatus.UNKNOWN_ERROR, "Could not parse xml hierarchy to string: " + e);
         } catch (UiAutomator2Exception e) {
             Logger.error("Exception while performing LongPressKeyCode action: ", e);
             return new AppiumResponse(getSessionId(request), WDStatus.UNKNOWN_ERROR, e);
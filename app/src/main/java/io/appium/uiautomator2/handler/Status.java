@@ -10,6 +10,11 @@ public class Status extends SafeRequestHandler {
         super(mappedUri);
     }
 
+    @Override
+    public boolean isUiCommand() {
+        return false;
+    }
+
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) {
         return new AppiumResponse("SESSIONID", "Status Invoked");
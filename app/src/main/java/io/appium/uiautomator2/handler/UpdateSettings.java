@@ -9,6 +9,7 @@ import io.appium.uiautomator2.common.exceptions.UnsupportedSettingException;
 import io.appium.uiautomator2.handler.request.SafeRequestHandler;
 import io.appium.uiautomator2.http.AppiumResponse;
 import io.appium.uiautomator2.http.IHttpRequest;
+import io.appium.uiautomator2.model.HierarchyGeneration;
 import io.appium.uiautomator2.model.Session;
 import io.appium.uiautomator2.model.settings.ISetting;
 import io.appium.uiautomator2.model.settings.Settings;
@@ -33,6 +34,8 @@ public class UpdateSettings extends SafeRequestHandler {
             setting.update(settingValue);
             Session.capabilities.put(settingName, settingValue);
         }
+        // settings might change the page source as well
+        HierarchyGeneration.getInstance().increment();
         return new AppiumResponse(getSessionId(request), WDStatus.SUCCESS, true);
     }
 
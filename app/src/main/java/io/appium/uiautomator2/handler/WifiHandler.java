@@ -7,6 +7,7 @@ import android.support.test.InstrumentationRegistry;
 
 import io.appium.uiautomator2.http.AppiumResponse;
 import io.appium.uiautomator2.server.WDStatus;
+import io.appium.uiautomator2.utils.CancellationToken;
 
 import static android.net.wifi.WifiManager.WIFI_STATE_DISABLED;
 import static android.net.wifi.WifiManager.WIFI_STATE_DISABLING;
@@ -35,6 +36,7 @@ public class WifiHandler {
         long now = then;
         while (isInProgress() || !isSuccessful(setTo) && now - then < TIMEOUT) {
             //WIFI State change is in progress, wait for completion
+            CancellationToken.checkCurrent();
             SystemClock.sleep(100);
             now = System.currentTimeMillis();
             wifiState = wfm.getWifiState();
@@ -12,7 +12,6 @@ import java.util.Map;
 import io.appium.uiautomator2.http.AppiumResponse;
 import io.appium.uiautomator2.http.IHttpRequest;
 import io.appium.uiautomator2.server.AppiumServlet;
-import io.appium.uiautomator2.utils.Logger;
 
 public abstract class BaseRequestHandler {
 
@@ -37,12 +36,8 @@ public abstract class BaseRequestHandler {
     }
 
     public JSONObject getPayload(IHttpRequest request) throws JSONException {
-        String json = request.body();
-        Logger.debug("payload: " + json);
-        if (json != null && !json.isEmpty()) {
-            return new JSONObject(json);
-        }
-        return new JSONObject();
+        JSONObject payload = request.payload();
+        return payload == null ? new JSONObject() : payload;
     }
 
     public Map<String, Object> getPayload(IHttpRequest request, String jsonKey) throws JSONException {
@@ -67,6 +62,36 @@ public abstract class BaseRequestHandler {
         return (String) request.data().get(AppiumServlet.SESSION_ID_KEY);
     }
 
+    /**
+     * UI commands are executed one by one in a dedicated queue. Handlers, which do not
+     * interact with the device UI, might override this method to be executed immediately.
+     *
+     * @return true if the handler interacts with the device UI
+     */
+    public boolean isUiCommand() {
+        return true;
+    }
+
+    /**
+     * Identical requests to read-only handlers, which are received at nearly the same time,
+     * might share a single execution.
+     *
+     * @return true if the handler does not change the device state
+     */
+    public boolean isCoalescable() {
+        return false;
+    }
+
+    /**
+     * Commands, which have failed because their element has been rebuilt by the application,
+     * are executed once more after the element has been found again if they can be repeated.
+     *
+     * @return true if executing the command twice has the same effect as executing it once
+     */
+    public boolean isRepeatable() {
+        return false;
+    }
+
     public abstract AppiumResponse handle(IHttpRequest request);
 
     protected AppiumResponse safeHandle(IHttpRequest request) throws JSONException,
@@ -8,6 +8,7 @@ import org.json.JSONException;
 
 import java.text.MessageFormat;
 
+import io.appium.uiautomator2.common.exceptions.CommandCancelledException;
 import io.appium.uiautomator2.common.exceptions.CropScreenshotException;
 import io.appium.uiautomator2.common.exceptions.ElementNotFoundException;
 import io.appium.uiautomator2.common.exceptions.InvalidCoordinatesException;
@@ -16,6 +17,7 @@ import io.appium.uiautomator2.common.exceptions.InvalidSelectorException;
 import io.appium.uiautomator2.common.exceptions.NoAlertOpenException;
 import io.appium.uiautomator2.common.exceptions.NoAttributeFoundException;
 import io.appium.uiautomator2.common.exceptions.NoSuchContextException;
+import io.appium.uiautomator2.common.exceptions.StaleElementReferenceException;
 import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
 import io.appium.uiautomator2.common.exceptions.UiSelectorSyntaxException;
 import io.appium.uiautomator2.http.AppiumResponse;
@@ -61,6 +63,23 @@ public abstract class SafeRequestHandler extends BaseRequestHandler {
 
     @Override
     public final AppiumResponse handle(IHttpRequest request) {
+        return handle(request, true);
+    }
+
+    /**
+     * Finds the element, whose view has been rebuilt by the application, again.
+     *
+     * @return true if the element id has been bound to the new node
+     */
+    protected boolean rehydrate(String elementId) {
+        return KnownElements.rehydrate(elementId);
+    }
+
+    /**
+     * @param canRehydrate whether the element the command is sent to might be found again
+     *                     if its view has been rebuilt
+     */
+    private AppiumResponse handle(IHttpRequest request, boolean canRehydrate) {
         try {
             return safeHandle(request);
         } catch (InvalidSelectorException e) {
@@ -72,6 +91,9 @@ public abstract class SafeRequestHandler extends BaseRequestHandler {
         } catch (UiSelectorSyntaxException e) {
             Logger.error("Unable to parse UiSelector: ", e);
             return new AppiumResponse(getSessionId(request), WDStatus.INVALID_SELECTOR, e);
+        } catch (CommandCancelledException e) {
+            Logger.info("The command has been cancelled: " + e.getMessage());
+            return new AppiumResponse(getSessionId(request), WDStatus.TIMEOUT, e);
         } catch (CropScreenshotException e) {
             return new AppiumResponse(getSessionId(request), WDStatus.ELEMENT_NOT_VISIBLE, e);
         } catch (InvalidElementStateException e) {
@@ -90,6 +112,13 @@ public abstract class SafeRequestHandler extends BaseRequestHandler {
             return new AppiumResponse(getSessionId(request), WDStatus.NO_SUCH_WINDOW,
                     new UiAutomator2Exception("Invalid window handle was used: only 'NATIVE_APP' and 'WEBVIEW' are supported."));
         } catch (StaleObjectException e) {
+            String id = getElementId(request);
+            if (canRehydrate && isRepeatable() && id != null && rehydrate(id)) {
+                return handle(request, false);
+            }
+            Logger.error("Stale Element Reference Exception: ", e);
+            return new AppiumResponse(getSessionId(request), WDStatus.STALE_ELEMENT_REFERENCE, e);
+        } catch (StaleElementReferenceException e) {
             Logger.error("Stale Element Reference Exception: ", e);
             return new AppiumResponse(getSessionId(request), WDStatus.STALE_ELEMENT_REFERENCE, e);
         } catch (UnsupportedOperationException e) {
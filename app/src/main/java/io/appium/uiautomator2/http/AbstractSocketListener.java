@@ -0,0 +1,230 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.http;
+
+import android.net.LocalServerSocket;
+import android.net.LocalSocket;
+import android.net.LocalSocketAddress;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import io.appium.uiautomator2.utils.Logger;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalEventLoopGroup;
+import io.netty.util.concurrent.GlobalEventExecutor;
+
+/**
+ * Accepts connections on a Linux abstract namespace socket, which adb can forward to with
+ * {@code adb forward tcp:<port> localabstract:<name>}.
+ * <p>
+ * Netty has no transport for Android local sockets, so every accepted socket is bridged
+ * to an in-VM channel of the server. Requests go through the same pipeline as the TCP ones,
+ * but they never touch the TCP stack. Socket writes are blocking, so every bridge gets its
+ * own event loop, and a slow client only stalls its own connection.
+ */
+class AbstractSocketListener {
+    private static final int BUFFER_SIZE = 8192;
+    // the reader waits for the server only after this amount of data has been passed to it
+    private static final int MAX_UNCONFIRMED_BYTES = 64 * 1024;
+
+    private final String name;
+    private final LocalAddress serverAddress;
+    private final ChannelGroup bridges = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+    private LocalServerSocket serverSocket;
+    private volatile boolean isStopped;
+
+    AbstractSocketListener(String name, LocalAddress serverAddress) {
+        this.name = name;
+        this.serverAddress = serverAddress;
+    }
+
+    void start() throws IOException {
+        serverSocket = new LocalServerSocket(name);
+        new Thread("abstract-socket-acceptor") {
+            @Override
+            public void run() {
+                acceptConnections();
+            }
+        }.start();
+        Logger.info("Listening on abstract socket " + name);
+    }
+
+    void stop() {
+        isStopped = true;
+        // closing the server socket does not interrupt accept() on Android,
+        // so wake it up with a dummy connection
+        LocalSocket wakeUp = new LocalSocket();
+        try {
+            wakeUp.connect(new LocalSocketAddress(name));
+        } catch (IOException ignored) {
+        } finally {
+            closeQuietly(wakeUp);
+        }
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+        }
+        bridges.close();
+    }
+
+    private void acceptConnections() {
+        while (!isStopped) {
+            final LocalSocket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!isStopped) {
+                    Logger.error("Unable to accept abstract socket connections", e);
+                }
+                return;
+            }
+            if (isStopped) {
+                closeQuietly(socket);
+                return;
+            }
+            bridge(socket);
+        }
+    }
+
+    private void bridge(final LocalSocket socket) {
+        final EventLoopGroup writerGroup = new LocalEventLoopGroup(1);
+        Bootstrap bootstrap = new Bootstrap()
+                .group(writerGroup)
+                .channel(LocalChannel.class)
+                .handler(new SocketWriter(socket));
+        bootstrap.connect(serverAddress).addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) {
+                if (!future.isSuccess()) {
+                    Logger.error("Unable to bridge the abstract socket connection", future.cause());
+                    closeQuietly(socket);
+                    writerGroup.shutdownGracefully();
+                    return;
+                }
+                Channel channel = future.channel();
+                bridges.add(channel);
+                channel.closeFuture().addListener(new ChannelFutureListener() {
+                    @Override
+                    public void operationComplete(ChannelFuture future) {
+                        writerGroup.shutdownGracefully();
+                    }
+                });
+                startReading(socket, channel);
+            }
+        });
+    }
+
+    private static void startReading(final LocalSocket socket, final Channel channel) {
+        new Thread("abstract-socket-reader") {
+            @Override
+            public void run() {
+                try {
+                    InputStream in = socket.getInputStream();
+                    int unconfirmedBytes = 0;
+                    while (true) {
+                        // heap buffers are filled from the stream without a temporary array
+                        ByteBuf buffer = channel.alloc().heapBuffer(BUFFER_SIZE);
+                        int count;
+                        try {
+                            count = buffer.writeBytes(in, BUFFER_SIZE);
+                        } catch (IOException e) {
+                            buffer.release();
+                            throw e;
+                        }
+                        if (count < 0) {
+                            buffer.release();
+                            break;
+                        }
+                        ChannelFuture write = channel.writeAndFlush(buffer);
+                        unconfirmedBytes += count;
+                        // a busy server slows down the client instead of buffering its data
+                        if (unconfirmedBytes >= MAX_UNCONFIRMED_BYTES) {
+                            if (!write.awaitUninterruptibly().isSuccess()) {
+                                break;
+                            }
+                            unconfirmedBytes = 0;
+                        }
+                    }
+                } catch (IOException e) {
+                    Logger.debug("Abstract socket connection is closed: " + e.getMessage());
+                } finally {
+                    channel.close();
+                }
+            }
+        }.start();
+    }
+
+    private static void closeQuietly(LocalSocket socket) {
+        // close() alone does not interrupt a blocked read on Android
+        try {
+            socket.shutdownInput();
+        } catch (IOException ignored) {
+        }
+        try {
+            socket.shutdownOutput();
+        } catch (IOException ignored) {
+        }
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Passes the responses from the server to the client socket.
+     */
+    private static class SocketWriter extends ChannelInboundHandlerAdapter {
+        private final LocalSocket socket;
+
+        SocketWriter(LocalSocket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            ByteBuf buf = (ByteBuf) msg;
+            try {
+                buf.readBytes(socket.getOutputStream(), buf.readableBytes());
+            } finally {
+                buf.release();
+            }
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            closeQuietly(socket);
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            Logger.debug("Unable to write to the abstract socket: " + cause.getMessage());
+            ctx.close();
+        }
+    }
+}
@@ -3,8 +3,9 @@ package io.appium.uiautomator2.http;
 
 import android.util.Log;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 
 import io.appium.uiautomator2.server.WDStatus;
 import io.appium.uiautomator2.utils.Logger;
@@ -39,16 +40,46 @@ public class AppiumResponse {
     }
 
     public String render() {
-        JSONObject o = new JSONObject();
+        StringWriter writer = new StringWriter();
         try {
-            o.put("sessionId", sessionId == null ? JSONObject.NULL : sessionId);
-            o.put("status", status);
-            o.put("value", value == null ? JSONObject.NULL : value);
-        } catch (JSONException e) {
-            Logger.error("Unable to create JSON Object:", e);
+            render(writer);
+        } catch (IOException e) {
+            Logger.error("Unable to render the response:", e);
         }
-        Logger.info("AppiumResponse: ", o.toString());
-        return o.toString();
+        return writer.toString();
+    }
+
+    /**
+     * Writes the JSON representation of the response without building it in memory.
+     *
+     * @param writer the destination writer
+     * @throws IOException if the response cannot be written
+     */
+    public void render(Writer writer) throws IOException {
+        // the preview is only collected if it is going to be logged
+        LogPreviewWriter previewWriter = Logger.isInfoEnabled()
+                ? new LogPreviewWriter(writer, Logger.getMaxMessageLength())
+                : null;
+        Writer out = previewWriter == null ? writer : previewWriter;
+        JsonValueWriter jsonWriter = new JsonValueWriter(out);
+        out.write("{\"sessionId\":");
+        jsonWriter.write(sessionId);
+        out.write(",\"status\":");
+        out.write(Integer.toString(status));
+        out.write(",\"value\":");
+        jsonWriter.write(value);
+        out.write('}');
+        if (previewWriter != null) {
+            Logger.info("AppiumResponse: ", previewWriter.getPreview());
+        }
+    }
+
+    /**
+     * @return true if the value is too large to be buffered and should be sent
+     * to the client while it is being rendered
+     */
+    public boolean isStreamable() {
+        return value instanceof StreamableValue;
     }
 
     public int getStatus() {
@@ -58,5 +89,53 @@ public class AppiumResponse {
     public Object getValue() {
         return value;
     }
-}
 
+    /**
+     * Keeps the beginning of the rendered response for logging.
+     */
+    private static class LogPreviewWriter extends Writer {
+        private final Writer out;
+        private final int maxLength;
+        private final StringBuilder preview = new StringBuilder();
+        private boolean isTruncated;
+
+        LogPreviewWriter(Writer out, int maxLength) {
+            this.out = out;
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            out.write(chars, offset, length);
+            preview.append(chars, offset, Math.min(length, getRemainingLength(length)));
+        }
+
+        @Override
+        public void write(String str, int offset, int length) throws IOException {
+            out.write(str, offset, length);
+            preview.append(str, offset, offset + Math.min(length, getRemainingLength(length)));
+        }
+
+        private int getRemainingLength(int length) {
+            int remaining = maxLength - preview.length();
+            if (length > remaining) {
+                isTruncated = true;
+            }
+            return Math.max(remaining, 0);
+        }
+
+        String getPreview() {
+            return isTruncated ? preview + "..." : preview.toString();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.http;
+
+import io.appium.uiautomator2.model.UiEventStream;
+import io.appium.uiautomator2.model.settings.ResponseCompressionLevel;
+import io.appium.uiautomator2.model.settings.ResponseCompressionThreshold;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.JdkZlibEncoder;
+import io.netty.handler.codec.compression.ZlibWrapper;
+import io.netty.handler.codec.http.HttpContentCompressor;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponse;
+
+import static io.appium.uiautomator2.model.settings.Settings.RESPONSE_COMPRESSION_LEVEL;
+import static io.appium.uiautomator2.model.settings.Settings.RESPONSE_COMPRESSION_THRESHOLD;
+
+/**
+ * Compresses responses with gzip or deflate depending on the Accept-Encoding request header.
+ * The compression level and the minimum size of compressed responses are taken from
+ * the current settings, so they are applied to the next response after they are changed.
+ * The JDK zlib implementation is used explicitly, since JZlib is not bundled with the server.
+ */
+public class ContentCompressor extends HttpContentCompressor {
+
+    @Override
+    protected Result beginEncode(HttpResponse headers, String acceptEncoding) throws Exception {
+        int level = ((ResponseCompressionLevel) RESPONSE_COMPRESSION_LEVEL.getSetting())
+                .getValue().intValue();
+        if (level == 0) {
+            return null;
+        }
+        String contentType = headers.headers().get(HttpHeaders.Names.CONTENT_TYPE);
+        if (contentType != null && contentType.startsWith("image/")) {
+            // screenshots are compressed already
+            return null;
+        }
+        if (contentType != null && contentType.startsWith(UiEventStream.CONTENT_TYPE)) {
+            // the compressor would hold events back until its buffer is filled up
+            return null;
+        }
+        long contentLength = HttpHeaders.getContentLength(headers, -1);
+        long threshold = ((ResponseCompressionThreshold) RESPONSE_COMPRESSION_THRESHOLD.getSetting())
+                .getValue();
+        if (contentLength >= 0 && contentLength < threshold) {
+            return null;
+        }
+
+        ZlibWrapper wrapper = determineWrapper(acceptEncoding);
+        if (wrapper == null) {
+            return null;
+        }
+        String targetContentEncoding = wrapper == ZlibWrapper.GZIP
+                ? HttpHeaders.Values.GZIP
+                : HttpHeaders.Values.DEFLATE;
+        return new Result(targetContentEncoding,
+                new EmbeddedChannel(new JdkZlibEncoder(wrapper, level)));
+    }
+}
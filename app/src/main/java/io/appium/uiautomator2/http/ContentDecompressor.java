@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.http;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.JdkZlibDecoder;
+import io.netty.handler.codec.compression.ZlibWrapper;
+import io.netty.handler.codec.http.HttpContentDecompressor;
+import io.netty.handler.codec.http.HttpHeaders;
+
+/**
+ * Decompresses gzip/deflate request bodies.
+ * Netty considers Android as Java 6 and would pick up JZlib, which is not bundled
+ * with the server, so the JDK implementation is always used instead.
+ */
+public class ContentDecompressor extends HttpContentDecompressor {
+
+    @Override
+    protected EmbeddedChannel newContentDecoder(String contentEncoding) throws Exception {
+        if (HttpHeaders.Values.GZIP.equalsIgnoreCase(contentEncoding)
+                || "x-gzip".equalsIgnoreCase(contentEncoding)) {
+            return new EmbeddedChannel(new JdkZlibDecoder(ZlibWrapper.GZIP));
+        }
+        if (HttpHeaders.Values.DEFLATE.equalsIgnoreCase(contentEncoding)
+                || "x-deflate".equalsIgnoreCase(contentEncoding)) {
+            return new EmbeddedChannel(new JdkZlibDecoder(ZlibWrapper.ZLIB_OR_NONE));
+        }
+        // 'identity' or unsupported
+        return null;
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appium.uiautomator2.http;
+
+/**
+ * Response value, which identifies its version with an entity tag. The tag is sent to the client
+ * in the ETag header, so the client might ask whether the value has changed since then.
+ */
+public interface EntityTagged {
+
+    /**
+     * @return the quoted entity tag or null if the value version is unknown
+     */
+    String getEntityTag();
+}
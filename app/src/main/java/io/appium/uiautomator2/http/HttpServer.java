@@ -1,22 +1,44 @@
 package io.appium.uiautomator2.http;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import io.appium.uiautomator2.utils.Logger;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalServerChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 
 public class HttpServer {
+    // Netty does not pool buffers on Android by default. Small 1 MB chunks
+    // (8 KB pages, order 7) keep the pool footprint low on low-memory devices
+    private static final ByteBufAllocator ALLOCATOR =
+            new PooledByteBufAllocator(false, 1, 1, 8192, 7);
+
     private final int port;
+    private final String abstractSocketName;
     private final List<IHttpServlet> handlers = new ArrayList<IHttpServlet>();
     private Thread serverThread;
 
     public HttpServer(int port) {
+        this(port, null);
+    }
+
+    /**
+     * @param port               TCP port to listen on
+     * @param abstractSocketName name of the abstract namespace socket to listen on as well
+     *                           or null to accept TCP connections only
+     */
+    public HttpServer(int port, String abstractSocketName) {
         this.port = port;
+        this.abstractSocketName = abstractSocketName;
     }
 
     public void addHandler(IHttpServlet handler) {
@@ -32,16 +54,24 @@ public class HttpServer {
             public void run() {
                 EventLoopGroup bossGroup = new NioEventLoopGroup(1);
                 EventLoopGroup workerGroup = new NioEventLoopGroup();
+                AbstractSocketListener abstractSocketListener = null;
                 try {
                     ServerBootstrap bootstrap = new ServerBootstrap();
                     bootstrap.option(ChannelOption.SO_BACKLOG, 1024);
                     bootstrap.option(ChannelOption.SO_REUSEADDR, true);
+                    bootstrap.childOption(ChannelOption.ALLOCATOR, ALLOCATOR);
                     bootstrap.group(bossGroup, workerGroup).channel(NioServerSocketChannel.class).childHandler(new ServerInitializer(handlers));
 
                     Channel ch = bootstrap.bind(port).sync().channel();
+                    if (abstractSocketName != null) {
+                        abstractSocketListener = startAbstractSocketListener(bossGroup, workerGroup);
+                    }
                     ch.closeFuture().sync();
                 } catch (InterruptedException ignored) {
                 } finally {
+                    if (abstractSocketListener != null) {
+                        abstractSocketListener.stop();
+                    }
                     bossGroup.shutdownGracefully();
                     workerGroup.shutdownGracefully();
                 }
@@ -50,6 +80,26 @@ public class HttpServer {
         serverThread.start();
     }
 
+    private AbstractSocketListener startAbstractSocketListener(EventLoopGroup bossGroup,
+                                                               EventLoopGroup workerGroup)
+            throws InterruptedException {
+        LocalAddress address = new LocalAddress(abstractSocketName);
+        ServerBootstrap bootstrap = new ServerBootstrap();
+        bootstrap.childOption(ChannelOption.ALLOCATOR, ALLOCATOR);
+        bootstrap.group(bossGroup, workerGroup).channel(LocalServerChannel.class).childHandler(new ServerInitializer(handlers));
+        bootstrap.bind(address).sync();
+
+        AbstractSocketListener listener = new AbstractSocketListener(abstractSocketName, address);
+        try {
+            listener.start();
+        } catch (IOException e) {
+            // the server is still reachable over TCP
+            Logger.error("Unable to listen on abstract socket " + abstractSocketName, e);
+            return null;
+        }
+        return listener;
+    }
+
     public void stop() {
         if (serverThread == null) {
             throw new IllegalStateException("Server is not running");
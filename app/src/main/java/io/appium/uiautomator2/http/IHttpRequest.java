@@ -1,7 +1,14 @@
 package io.appium.uiautomator2.http;
 
+import android.support.annotation.Nullable;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
 import java.util.Map;
 
+import io.appium.uiautomator2.utils.CancellationToken;
+
 public interface IHttpRequest {
     /**
      * Returns "GET", "POST", "PUT" or "DELETE".
@@ -18,6 +25,19 @@ public interface IHttpRequest {
      */
     String body();
 
+    /**
+     * Returns the request body parsed as a JSON object or an empty object if the body is empty.
+     * The body is parsed only once, so the same instance is returned by subsequent calls.
+     */
+    JSONObject payload() throws JSONException;
+
+    /**
+     * Returns the payload if it has been already parsed, so it can be inspected
+     * without parsing the body.
+     */
+    @Nullable
+    JSONObject parsedPayload();
+
     /**
      * Gets the value of a given header.
      */
@@ -27,4 +47,9 @@ public interface IHttpRequest {
      * Returns additional data appended to the request.
      */
     Map<String, Object> data();
+
+    /**
+     * Returns the token, which is cancelled when the client is not waiting for the response anymore.
+     */
+    CancellationToken cancellationToken();
 }
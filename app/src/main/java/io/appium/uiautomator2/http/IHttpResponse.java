@@ -1,5 +1,7 @@
 package io.appium.uiautomator2.http;
 
+import java.io.OutputStream;
+import java.io.Writer;
 import java.nio.charset.Charset;
 
 public interface IHttpResponse {
@@ -8,17 +10,71 @@ public interface IHttpResponse {
 
     IHttpResponse setContentType(String mimeType);
 
+    IHttpResponse setHeader(String name, String value);
+
     IHttpResponse setContent(byte[] data);
 
     IHttpResponse setContent(String message);
 
     IHttpResponse setEncoding(Charset charset);
 
+    /**
+     * Provides a writer which encodes the response body using the current encoding
+     * directly into the response buffer. The content is sent to the client once
+     * the response is ended, so the writer must be flushed and closed before that.
+     *
+     * @return the writer for the response body
+     */
+    Writer getContentWriter();
+
     IHttpResponse sendRedirect(String to);
 
     IHttpResponse sendTemporaryRedirect(String to);
 
+    /**
+     * Marks the response as completed asynchronously.
+     * The response is not sent to the client until {@link #end()} is called,
+     * which might happen on a different thread.
+     */
+    IHttpResponse startAsync();
+
+    boolean isAsync();
+
+    /**
+     * Switches the response to chunked transfer encoding. The status and headers are sent
+     * to the client immediately, so they must be set before this method is called.
+     * Everything written to the returned stream is sent as soon as a chunk is filled up
+     * and the stream is closed by {@link #end()} if the caller has not done that.
+     *
+     * @return the stream to write the response body to
+     */
+    OutputStream startStreaming();
+
+    boolean isStreaming();
+
+    /**
+     * Tells whether the client keeps up with the streamed content. Writing to the stream
+     * of a client which does not, waits until it has read the content sent so far.
+     *
+     * @return false if writing more of the streamed content would wait for the client
+     */
+    boolean isWritable();
+
     void end();
 
     boolean isClosed();
+
+    /**
+     * Invokes the listener once the response is ended, for example to keep track of
+     * asynchronous responses. The listener is invoked immediately if it has been already ended.
+     */
+    void addEndListener(Runnable listener);
+
+    /**
+     * Returns the size of the response body before the transfer encoding is applied.
+     * It is only known once the response has been ended.
+     *
+     * @return the number of body bytes sent to the client
+     */
+    long getContentLength();
 }
@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.http;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Escapes all the characters written to it, so they could be safely put
+ * between the quotes of a JSON string literal.
+ */
+class JsonStringWriter extends Writer {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+
+    JsonStringWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        int unescapedStart = offset;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            String replacement = escape(chars[i]);
+            if (replacement == null) {
+                continue;
+            }
+            if (i > unescapedStart) {
+                out.write(chars, unescapedStart, i - unescapedStart);
+            }
+            out.write(replacement);
+            unescapedStart = i + 1;
+        }
+        if (end > unescapedStart) {
+            out.write(chars, unescapedStart, end - unescapedStart);
+        }
+    }
+
+    @Override
+    public void write(String str, int offset, int length) throws IOException {
+        // the default implementation copies the string to a temporary array
+        int unescapedStart = offset;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            String replacement = escape(str.charAt(i));
+            if (replacement == null) {
+                continue;
+            }
+            if (i > unescapedStart) {
+                out.write(str, unescapedStart, i - unescapedStart);
+            }
+            out.write(replacement);
+            unescapedStart = i + 1;
+        }
+        if (end > unescapedStart) {
+            out.write(str, unescapedStart, end - unescapedStart);
+        }
+    }
+
+    private static String escape(char c) {
+        switch (c) {
+            case '"':
+                return "\\\"";
+            case '\\':
+                return "\\\\";
+            case '\b':
+                return "\\b";
+            case '\f':
+                return "\\f";
+            case '\n':
+                return "\\n";
+            case '\r':
+                return "\\r";
+            case '\t':
+                return "\\t";
+            default:
+                if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                    return new String(new char[]{'\\', 'u', HEX_DIGITS[c >> 12 & 0xf],
+                            HEX_DIGITS[c >> 8 & 0xf], HEX_DIGITS[c >> 4 & 0xf], HEX_DIGITS[c & 0xf]});
+                }
+                return null;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // the underlying writer is owned by the caller
+        flush();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.http;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Serializes response values directly to a writer, so neither the whole JSON document
+ * nor the nested objects are converted to intermediate strings first.
+ * The output is equivalent to what {@link JSONObject#toString()} produces for the same value.
+ */
+class JsonValueWriter {
+    private final Writer writer;
+
+    JsonValueWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    void write(Object value) throws IOException {
+        if (value == null || value == JSONObject.NULL) {
+            writer.write("null");
+        } else if (value instanceof String) {
+            writeString((String) value);
+        } else if (value instanceof Boolean) {
+            writer.write(value.toString());
+        } else if (value instanceof Number) {
+            writeNumber((Number) value);
+        } else if (value instanceof JSONObject) {
+            writeObject((JSONObject) value);
+        } else if (value instanceof JSONArray) {
+            writeArray((JSONArray) value);
+        } else if (value instanceof Map) {
+            writeMap((Map<?, ?>) value);
+        } else if (value instanceof Collection) {
+            writeCollection((Collection<?>) value);
+        } else if (value instanceof StreamableValue) {
+            writer.write('"');
+            ((StreamableValue) value).writeTo(new JsonStringWriter(writer));
+            writer.write('"');
+        } else {
+            writeString(value.toString());
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        writer.write('"');
+        new JsonStringWriter(writer).write(value);
+        writer.write('"');
+    }
+
+    private void writeNumber(Number value) throws IOException {
+        try {
+            writer.write(JSONObject.numberToString(value));
+        } catch (JSONException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void writeObject(JSONObject object) throws IOException {
+        writer.write('{');
+        Iterator<String> keys = object.keys();
+        boolean isFirst = true;
+        while (keys.hasNext()) {
+            String key = keys.next();
+            if (!isFirst) {
+                writer.write(',');
+            }
+            isFirst = false;
+            writeString(key);
+            writer.write(':');
+            write(object.opt(key));
+        }
+        writer.write('}');
+    }
+
+    private void writeArray(JSONArray array) throws IOException {
+        writer.write('[');
+        for (int i = 0; i < array.length(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            write(array.opt(i));
+        }
+        writer.write(']');
+    }
+
+    private void writeMap(Map<?, ?> map) throws IOException {
+        writer.write('{');
+        boolean isFirst = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!isFirst) {
+                writer.write(',');
+            }
+            isFirst = false;
+            writeString(String.valueOf(entry.getKey()));
+            writer.write(':');
+            write(entry.getValue());
+        }
+        writer.write('}');
+    }
+
+    private void writeCollection(Collection<?> collection) throws IOException {
+        writer.write('[');
+        boolean isFirst = true;
+        for (Object item : collection) {
+            if (!isFirst) {
+                writer.write(',');
+            }
+            isFirst = false;
+            write(item);
+        }
+        writer.write(']');
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appium.uiautomator2.http;
+
+import android.support.annotation.Nullable;
+
+/**
+ * Response value telling the client that its copy of the requested value is still valid,
+ * which is sent as 304 status without any body.
+ */
+public class NotModified implements EntityTagged {
+    private final String entityTag;
+
+    public NotModified(String entityTag) {
+        this.entityTag = entityTag;
+    }
+
+    @Override
+    public String getEntityTag() {
+        return entityTag;
+    }
+
+    /**
+     * @param ifNoneMatch the value of the If-None-Match request header
+     * @param entityTag   the quoted tag of the current value version
+     * @return true if the client already has the current version of the value
+     */
+    public static boolean isMatching(@Nullable String ifNoneMatch, String entityTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            // weak comparison is used for GET requests
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(entityTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,59 +1,164 @@
 package io.appium.uiautomator2.http;
 
+import java.util.ArrayDeque;
 import java.util.List;
+import java.util.Queue;
 import java.util.logging.Level;
 
 import io.appium.uiautomator2.http.impl.NettyHttpRequest;
 import io.appium.uiautomator2.http.impl.NettyHttpResponse;
+import io.appium.uiautomator2.utils.CancellationToken;
 import io.appium.uiautomator2.utils.Logger;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.ReferenceCountUtil;
 
 import static io.netty.handler.codec.http.HttpResponseStatus.OK;
 import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
 
 public class ServerHandler extends ChannelInboundHandlerAdapter {
     private final static java.util.logging.Logger LOGGER = java.util.logging.Logger.getLogger(ServerHandler.class.getName());
+    // pipelined requests above this amount pause reading from the connection
+    private static final int MAX_PENDING_REQUESTS = 16;
     private List<io.appium.uiautomator2.http.IHttpServlet> httpHandlers;
+    private final int maxRequestsPerConnection;
+    private int requestsServed;
+    private volatile boolean isRequestInProgress;
+    // requests received while another one is being handled, accessed from the event loop only
+    private final Queue<FullHttpRequest> pendingRequests = new ArrayDeque<>();
+    // cancels the commands of this connection once the client disconnects
+    private final CancellationToken connectionToken = new CancellationToken();
 
-    public ServerHandler(List<io.appium.uiautomator2.http.IHttpServlet> handlers) {
+    public ServerHandler(List<io.appium.uiautomator2.http.IHttpServlet> handlers, int maxRequestsPerConnection) {
         this.httpHandlers = handlers;
+        this.maxRequestsPerConnection = maxRequestsPerConnection;
     }
 
     @Override
-    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+    public void channelRead(final ChannelHandlerContext ctx, Object msg) throws Exception {
         Logger.info("channel read invoked!");
         if (!(msg instanceof FullHttpRequest)) {
             return;
         }
 
         FullHttpRequest request = (FullHttpRequest) msg;
-        FullHttpResponse response = new DefaultFullHttpResponse(HTTP_1_1, OK);
-        response.headers().add("Connection", "close");
+        if (isRequestInProgress) {
+            // Responses must be sent in the same order the requests were received,
+            // so pipelined requests wait for the current one to be answered. The connection
+            // is still read, so the client disconnection is noticed while a command runs
+            pendingRequests.add(request);
+            if (pendingRequests.size() >= MAX_PENDING_REQUESTS) {
+                ctx.channel().config().setAutoRead(false);
+            }
+            return;
+        }
+        handleRequest(ctx, request);
+    }
 
-        Logger.info("channel read: " + request.getMethod().toString() + " " + request.getUri());
+    private void handleRequest(final ChannelHandlerContext ctx, final FullHttpRequest request)
+            throws Exception {
+        final FullHttpResponse response = new DefaultFullHttpResponse(HTTP_1_1, OK,
+                ctx.alloc().buffer());
 
-        io.appium.uiautomator2.http.IHttpRequest httpRequest = new NettyHttpRequest(request);
-        io.appium.uiautomator2.http.IHttpResponse httpResponse = new NettyHttpResponse(response);
+        Logger.info("channel read: ", request.getMethod(), " ", request.getUri());
+
+        requestsServed++;
+        final boolean keepAlive = HttpHeaders.isKeepAlive(request)
+                && (maxRequestsPerConnection <= 0 || requestsServed < maxRequestsPerConnection);
+        isRequestInProgress = true;
+
+        io.appium.uiautomator2.http.IHttpRequest httpRequest = new NettyHttpRequest(request,
+                new CancellationToken(connectionToken));
+        HttpHeaders.setKeepAlive(response, keepAlive);
+        NettyHttpResponse httpResponse = new NettyHttpResponse(response, ctx,
+                httpRequest.cancellationToken(), new NettyHttpResponse.OnEndListener() {
+                    @Override
+                    public void onEnd(NettyHttpResponse httpResponse) {
+                        writeResponse(ctx, request, response, httpResponse.isStreaming(), keepAlive);
+                    }
+                });
+
+        dispatch(httpHandlers, httpRequest, httpResponse);
+    }
 
-        for (io.appium.uiautomator2.http.IHttpServlet handler : httpHandlers) {
+    /**
+     * Passes the request to the first servlet which handles it or answers with 404 if there is none.
+     */
+    static void dispatch(List<IHttpServlet> httpHandlers, IHttpRequest httpRequest,
+                         IHttpResponse httpResponse) throws Exception {
+        for (IHttpServlet handler : httpHandlers) {
             handler.handleHttpRequest(httpRequest, httpResponse);
-            if (httpResponse.isClosed()) {
-                break;
+            if (httpResponse.isClosed() || httpResponse.isAsync()) {
+                return;
             }
         }
 
-        if (!httpResponse.isClosed()) {
-            httpResponse.setStatus(404);
-            httpResponse.end();
+        httpResponse.setStatus(404);
+        httpResponse.end();
+    }
+
+    private void writeResponse(final ChannelHandlerContext ctx, FullHttpRequest request,
+                               FullHttpResponse response, boolean isStreaming, boolean keepAlive) {
+        ReferenceCountUtil.release(request);
+
+        ChannelFuture future;
+        if (isStreaming) {
+            // the status line, the headers and the content have been already sent
+            response.release();
+            future = ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+        } else {
+            HttpHeaders.setContentLength(response, response.content().readableBytes());
+            future = ctx.writeAndFlush(response);
+        }
+        if (keepAlive) {
+            future.addListener(new ChannelFutureListener() {
+                @Override
+                public void operationComplete(ChannelFuture future) throws Exception {
+                    onResponseSent(ctx, future.isSuccess());
+                }
+            });
+        } else {
+            future.addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    /**
+     * Handles the next pipelined request once the previous response has been written.
+     * Runs on the event loop of the connection.
+     */
+    private void onResponseSent(ChannelHandlerContext ctx, boolean isSuccess) throws Exception {
+        isRequestInProgress = false;
+        if (!isSuccess || !ctx.channel().isActive()) {
+            releasePendingRequests();
+            return;
         }
+        FullHttpRequest next = pendingRequests.poll();
+        if (pendingRequests.size() < MAX_PENDING_REQUESTS) {
+            ctx.channel().config().setAutoRead(true);
+        }
+        if (next == null) {
+            return;
+        }
+        try {
+            handleRequest(ctx, next);
+        } catch (Exception e) {
+            exceptionCaught(ctx, e);
+        }
+    }
 
-        ctx.write(response).addListener(ChannelFutureListener.CLOSE);
-        super.channelRead(ctx, msg);
+    private void releasePendingRequests() {
+        FullHttpRequest request;
+        while ((request = pendingRequests.poll()) != null) {
+            ReferenceCountUtil.release(request);
+        }
     }
 
     @Override
@@ -62,6 +167,30 @@ public class ServerHandler extends ChannelInboundHandlerAdapter {
         ctx.fireChannelReadComplete();
     }
 
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (isRequestInProgress) {
+            Logger.info("The client has disconnected before the response was sent: " + ctx.channel());
+        }
+        connectionToken.cancel("The client has closed the connection");
+        releasePendingRequests();
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof IdleStateEvent) {
+            if (isRequestInProgress) {
+                // long-running commands do not produce any I/O until they are finished
+                return;
+            }
+            Logger.debug("Closing idle connection " + ctx.channel());
+            ctx.close();
+            return;
+        }
+        super.userEventTriggered(ctx, evt);
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
         LOGGER.log(Level.SEVERE, "Error handling request", cause);
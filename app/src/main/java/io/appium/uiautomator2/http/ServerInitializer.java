@@ -2,13 +2,18 @@ package io.appium.uiautomator2.http;
 
 import java.util.List;
 
+import io.appium.uiautomator2.server.ServerConfig;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
-import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.websocketx.WebSocketFrameAggregator;
+import io.netty.handler.codec.http.websocketx.WebSocketServerProtocolHandler;
+import io.netty.handler.timeout.IdleStateHandler;
 
-public class ServerInitializer extends ChannelInitializer<SocketChannel> {
+public class ServerInitializer extends ChannelInitializer<Channel> {
+    private static final int MAX_CONTENT_LENGTH = 65536;
 
     private final List<io.appium.uiautomator2.http.IHttpServlet> handlers;
 
@@ -17,10 +22,19 @@ public class ServerInitializer extends ChannelInitializer<SocketChannel> {
     }
 
     @Override
-    public void initChannel(SocketChannel ch) {
+    public void initChannel(Channel ch) {
         ChannelPipeline pipeline = ch.pipeline();
+        pipeline.addLast("idleStateHandler", new IdleStateHandler(0, 0,
+                ServerConfig.getKeepAliveIdleTimeout()));
         pipeline.addLast("codec", new HttpServerCodec());
-        pipeline.addLast("aggregator", new HttpObjectAggregator(65536));
-        pipeline.addLast("io/appium/uiautomator2/handler", new io.appium.uiautomator2.http.ServerHandler(handlers));
+        pipeline.addLast("decompressor", new ContentDecompressor());
+        pipeline.addLast("compressor", new ContentCompressor());
+        pipeline.addLast("aggregator", new HttpObjectAggregator(MAX_CONTENT_LENGTH));
+        pipeline.addLast("webSocketProtocol", new WebSocketServerProtocolHandler(
+                ServerConfig.getWebSocketPath(), null, false, MAX_CONTENT_LENGTH));
+        pipeline.addLast("webSocketAggregator", new WebSocketFrameAggregator(MAX_CONTENT_LENGTH));
+        pipeline.addLast("webSocketHandler", new WebSocketHandler(handlers));
+        pipeline.addLast("io/appium/uiautomator2/handler", new io.appium.uiautomator2.http.ServerHandler(handlers,
+                ServerConfig.getMaxRequestsPerConnection()));
     }
 }
@@ -0,0 +1,35 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.http;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Response value which might be too large to be kept in memory as a single string.
+ * Its content is written to the client as a JSON string while it is being produced,
+ * so the response is sent using chunked transfer encoding.
+ */
+public interface StreamableValue {
+
+    /**
+     * Writes the raw (unescaped) string representation of the value.
+     *
+     * @param writer the destination writer
+     * @throws IOException if the value cannot be written
+     */
+    void writeTo(Writer writer) throws IOException;
+}
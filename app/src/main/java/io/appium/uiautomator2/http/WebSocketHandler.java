@@ -0,0 +1,132 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.http;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.InputStreamReader;
+import java.util.List;
+
+import io.appium.uiautomator2.http.impl.InternalHttpRequest;
+import io.appium.uiautomator2.http.impl.WebSocketHttpResponse;
+import io.appium.uiautomator2.server.HttpStatusCode;
+import io.appium.uiautomator2.server.WDStatus;
+import io.appium.uiautomator2.utils.CancellationToken;
+import io.appium.uiautomator2.utils.JsonStreamParser;
+import io.appium.uiautomator2.utils.Logger;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.websocketx.CloseWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.PingWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketServerProtocolHandler;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.CharsetUtil;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * Executes commands received as WebSocket text frames:
+ * {"id": correlation id, "method": "POST", "path": "/wd/hub/session/:sessionId/...", "body": {...}}
+ * <p>
+ * Commands are routed to the same servlets as HTTP requests. Responses are sent back as soon as
+ * they are ready, so the ones of non-UI commands might overtake the ones of commands received earlier.
+ */
+public class WebSocketHandler extends ChannelInboundHandlerAdapter {
+    // Close status code for unsupported data (RFC 6455)
+    private static final int UNSUPPORTED_DATA = 1003;
+
+    private final List<IHttpServlet> httpHandlers;
+    private boolean isUpgraded;
+    // cancels the commands of this connection once the client disconnects
+    private final CancellationToken connectionToken = new CancellationToken();
+
+    public WebSocketHandler(List<IHttpServlet> handlers) {
+        this.httpHandlers = handlers;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (!(msg instanceof WebSocketFrame)) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        try {
+            if (msg instanceof TextWebSocketFrame) {
+                handleCommand(ctx, (TextWebSocketFrame) msg);
+            } else {
+                ctx.writeAndFlush(new CloseWebSocketFrame(UNSUPPORTED_DATA,
+                        "Only text frames are supported"));
+            }
+        } finally {
+            ReferenceCountUtil.release(msg);
+        }
+    }
+
+    private void handleCommand(ChannelHandlerContext ctx, TextWebSocketFrame frame) throws Exception {
+        final JSONObject command;
+        try {
+            command = JsonStreamParser.parseObject(new InputStreamReader(
+                    new ByteBufInputStream(frame.content()), CharsetUtil.UTF_8));
+        } catch (JSONException e) {
+            Logger.error("Unable to parse the WebSocket command", e);
+            new WebSocketHttpResponse(ctx, null)
+                    .setStatus(HttpStatusCode.BAD_REQUEST.getStatusCode())
+                    .setContent(new AppiumResponse(null, WDStatus.UNKNOWN_ERROR, e.getMessage()).render())
+                    .end();
+            return;
+        }
+
+        Object correlationId = command.opt("id");
+        IHttpResponse response = new WebSocketHttpResponse(ctx, correlationId);
+        String path = command.optString("path", null);
+        if (path == null) {
+            response.setStatus(HttpStatusCode.BAD_REQUEST.getStatusCode())
+                    .setContent(new AppiumResponse(null, WDStatus.UNKNOWN_ERROR,
+                            "The command path is missing").render())
+                    .end();
+            return;
+        }
+        String method = command.optString("method", "GET").toUpperCase();
+        Logger.info(String.format("WebSocket command %s: %s %s", correlationId, method, path));
+        ServerHandler.dispatch(httpHandlers,
+                new InternalHttpRequest(method, path, command.optJSONObject("body"),
+                        new CancellationToken(connectionToken)), response);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        connectionToken.cancel("The client has closed the connection");
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt == WebSocketServerProtocolHandler.ServerHandshakeStateEvent.HANDSHAKE_COMPLETE) {
+            Logger.info("WebSocket connection established: " + ctx.channel());
+            isUpgraded = true;
+            return;
+        }
+        if (evt instanceof IdleStateEvent && isUpgraded) {
+            // long-lived command channels are kept open as long as the client answers pings
+            ctx.writeAndFlush(new PingWebSocketFrame());
+            return;
+        }
+        super.userEventTriggered(ctx, evt);
+    }
+}
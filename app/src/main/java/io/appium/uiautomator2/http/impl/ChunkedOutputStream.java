@@ -0,0 +1,176 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.http.impl;
+
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import io.appium.uiautomator2.utils.CancellationToken;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultHttpContent;
+
+/**
+ * Sends everything written to it as HTTP chunks of a fixed maximum size.
+ * The terminating chunk is not written by this stream.
+ */
+class ChunkedOutputStream extends OutputStream {
+    private static final int CHUNK_SIZE = 8192;
+    // how long a client without a request deadline may keep the response unread
+    static final long DEFAULT_WRITE_TIMEOUT_MILLIS = 30000;
+    private static final long WAIT_STEP_MILLIS = 100;
+
+    private final ChannelHandlerContext ctx;
+    private final CancellationToken token;
+    private final long writeTimeoutMillis;
+    private ByteBuf buffer;
+    private ChannelFuture lastChunk;
+    private boolean closed;
+    private long bytesWritten;
+
+    /**
+     * @param token the token of the request the response belongs to. Waiting for a slow client
+     *              stops once it is cancelled
+     */
+    ChunkedOutputStream(ChannelHandlerContext ctx, @Nullable CancellationToken token) {
+        this(ctx, token, DEFAULT_WRITE_TIMEOUT_MILLIS);
+    }
+
+    ChunkedOutputStream(ChannelHandlerContext ctx, @Nullable CancellationToken token,
+                        long writeTimeoutMillis) {
+        this.ctx = ctx;
+        this.token = token;
+        this.writeTimeoutMillis = writeTimeoutMillis;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        allocateBufferIfNeeded();
+        buffer.writeByte(b);
+        if (!buffer.isWritable()) {
+            writeChunk();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            allocateBufferIfNeeded();
+            int count = Math.min(len, buffer.writableBytes());
+            buffer.writeBytes(b, off, count);
+            off += count;
+            len -= count;
+            if (!buffer.isWritable()) {
+                writeChunk();
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        writeChunk();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            writeChunk();
+        } finally {
+            closed = true;
+        }
+    }
+
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("The stream has been already closed");
+        }
+    }
+
+    private void allocateBufferIfNeeded() {
+        if (buffer == null) {
+            buffer = ctx.alloc().buffer(CHUNK_SIZE, CHUNK_SIZE);
+        }
+    }
+
+    private void writeChunk() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        if (!buffer.isReadable()) {
+            buffer.release();
+            buffer = null;
+            return;
+        }
+        // Do not let unsent chunks pile up in memory if the client reads slower
+        // than the content is produced. The event loop itself must never block though.
+        // Callers, which check the channel writability first, are never blocked
+        if (lastChunk != null && !ctx.channel().isWritable() && !ctx.executor().inEventLoop()) {
+            awaitSent(lastChunk);
+        }
+        bytesWritten += buffer.readableBytes();
+        lastChunk = ctx.writeAndFlush(new DefaultHttpContent(buffer));
+        buffer = null;
+        if (lastChunk.isDone() && !lastChunk.isSuccess()) {
+            throw new IOException("Unable to send the response chunk", lastChunk.cause());
+        }
+    }
+
+    /**
+     * Waits until the previous chunk is sent, but not longer than the request deadline or
+     * the default write timeout if the request has none, so a client which stops reading does
+     * not hold the command thread forever. The connection is closed if the chunk could not be
+     * sent in time.
+     */
+    private void awaitSent(ChannelFuture future) throws IOException {
+        boolean hasDeadline = token != null && token.hasDeadline();
+        long timeoutNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+        try {
+            while (!future.await(WAIT_STEP_MILLIS)) {
+                String reason = token == null ? null : token.getCancellationReason();
+                if (reason == null && !hasDeadline && System.nanoTime() - timeoutNanos >= 0) {
+                    reason = String.format("The client has not read the response within %sms",
+                            writeTimeoutMillis);
+                }
+                if (reason != null) {
+                    ctx.channel().close();
+                    throw new IOException("Unable to send the response chunk. " + reason);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ctx.channel().close();
+            throw new InterruptedIOException("Interrupted while sending the response chunk");
+        }
+        if (!future.isSuccess()) {
+            throw new IOException("Unable to send the response chunk", future.cause());
+        }
+    }
+}
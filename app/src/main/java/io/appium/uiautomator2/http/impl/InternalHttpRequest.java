@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.http.impl;
+
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.appium.uiautomator2.http.IHttpRequest;
+import io.appium.uiautomator2.utils.CancellationToken;
+
+/**
+ * Request, which does not come from an HTTP connection, but is built by the server
+ * itself, for example from a batch sub-command or a WebSocket frame.
+ */
+public class InternalHttpRequest implements IHttpRequest {
+    private final String method;
+    private final String uri;
+    private final JSONObject payload;
+    private final Map<String, Object> data = new HashMap<>();
+    private final CancellationToken cancellationToken;
+
+    public InternalHttpRequest(String method, String uri, JSONObject payload) {
+        this(method, uri, payload, new CancellationToken());
+    }
+
+    public InternalHttpRequest(String method, String uri, JSONObject payload,
+                               CancellationToken cancellationToken) {
+        this.method = method;
+        this.uri = uri;
+        this.payload = payload == null ? new JSONObject() : payload;
+        this.cancellationToken = cancellationToken;
+    }
+
+    @Override
+    public String method() {
+        return method;
+    }
+
+    @Override
+    public String uri() {
+        return uri;
+    }
+
+    @Override
+    public String body() {
+        return payload.toString();
+    }
+
+    @Override
+    public JSONObject payload() {
+        return payload;
+    }
+
+    @Override
+    public JSONObject parsedPayload() {
+        return payload;
+    }
+
+    @Override
+    public String header(String name) {
+        return null;
+    }
+
+    @Override
+    public Map<String, Object> data() {
+        return data;
+    }
+
+    @Override
+    public CancellationToken cancellationToken() {
+        return cancellationToken;
+    }
+}
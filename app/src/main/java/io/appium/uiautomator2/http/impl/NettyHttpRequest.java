@@ -1,19 +1,31 @@
 package io.appium.uiautomator2.http.impl;
 
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.InputStreamReader;
 import java.util.HashMap;
 import java.util.Map;
 
 import io.appium.uiautomator2.http.IHttpRequest;
+import io.appium.uiautomator2.utils.CancellationToken;
+import io.appium.uiautomator2.utils.JsonStreamParser;
+import io.appium.uiautomator2.utils.Logger;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.util.CharsetUtil;
 
 public class NettyHttpRequest implements IHttpRequest {
     private FullHttpRequest request;
     private Map<String, Object> data;
+    private JSONObject payload;
+    private final CancellationToken cancellationToken;
 
-    public NettyHttpRequest(FullHttpRequest request) {
+    public NettyHttpRequest(FullHttpRequest request, CancellationToken cancellationToken) {
         this.request = request;
         this.data = new HashMap<String, Object>();
+        this.cancellationToken = cancellationToken;
     }
 
     @Override
@@ -31,6 +43,31 @@ public class NettyHttpRequest implements IHttpRequest {
         return request.content().toString(CharsetUtil.UTF_8);
     }
 
+    @Override
+    public JSONObject payload() throws JSONException {
+        if (payload != null) {
+            return payload;
+        }
+        ByteBuf content = request.content();
+        if (!content.isReadable()) {
+            payload = new JSONObject();
+            return payload;
+        }
+        if (Logger.isDebugEnabled()) {
+            Logger.debug("payload: ", content.toString(content.readerIndex(),
+                    Math.min(content.readableBytes(), Logger.getMaxMessageLength()), CharsetUtil.UTF_8));
+        }
+        // the duplicate keeps the reader index of the original buffer intact
+        payload = JsonStreamParser.parseObject(new InputStreamReader(
+                new ByteBufInputStream(content.duplicate()), CharsetUtil.UTF_8));
+        return payload;
+    }
+
+    @Override
+    public JSONObject parsedPayload() {
+        return payload;
+    }
+
     @Override
     public String header(String name) {
         return request.headers().get(name);
@@ -40,4 +77,9 @@ public class NettyHttpRequest implements IHttpRequest {
     public Map<String, Object> data() {
         return data;
     }
+
+    @Override
+    public CancellationToken cancellationToken() {
+        return cancellationToken;
+    }
 }
@@ -1,27 +1,63 @@
 package io.appium.uiautomator2.http.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import io.appium.uiautomator2.http.IHttpResponse;
 import io.appium.uiautomator2.server.HttpStatusCode;
+import io.appium.uiautomator2.utils.CancellationToken;
+import io.appium.uiautomator2.utils.Logger;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.util.CharsetUtil;
 
 public class NettyHttpResponse implements IHttpResponse {
 
+    public interface OnEndListener {
+        void onEnd(NettyHttpResponse response);
+    }
+
     private final FullHttpResponse response;
     private final String CONTENT_TYPE = "Content-Type";
-    private final String CONTENT_ENCODING = "Content-Encoding";
     private final String CONTENT_LENGTH = "Content-Length";
     private final String LOCATION = "location";
-    private boolean closed;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final List<Runnable> endListeners = new ArrayList<>();
+    private final ChannelHandlerContext ctx;
+    private final CancellationToken token;
+    private final OnEndListener onEnd;
+    private volatile boolean async;
+    private OutputStream stream;
     private Charset charset = CharsetUtil.UTF_8;
+    private volatile long contentLength;
 
 
     public NettyHttpResponse(FullHttpResponse response) {
+        this(response, null, null, null);
+    }
+
+    /**
+     * @param ctx   the context of the channel the response is streamed to. If it is null then
+     *              the streamed content is buffered in the response
+     * @param token the token of the request, it limits how long streaming waits for a slow client
+     * @param onEnd is invoked once the response is ended
+     */
+    public NettyHttpResponse(FullHttpResponse response, ChannelHandlerContext ctx,
+                             CancellationToken token, OnEndListener onEnd) {
         this.response = response;
-        response.headers().add(CONTENT_ENCODING, "identity");
+        this.ctx = ctx;
+        this.token = token;
+        this.onEnd = onEnd;
     }
 
     public IHttpResponse setStatus(int status) {
@@ -34,6 +70,11 @@ public class NettyHttpResponse implements IHttpResponse {
         return this;
     }
 
+    public IHttpResponse setHeader(String name, String value) {
+        response.headers().set(name, value);
+        return this;
+    }
+
     public IHttpResponse setContent(byte[] data) {
         response.headers().add(CONTENT_LENGTH, data.length);
         response.content().writeBytes(data);
@@ -57,13 +98,103 @@ public class NettyHttpResponse implements IHttpResponse {
         return this;
     }
 
+    @Override
+    public IHttpResponse startAsync() {
+        async = true;
+        return this;
+    }
+
+    @Override
+    public boolean isAsync() {
+        return async;
+    }
+
+    @Override
+    public Writer getContentWriter() {
+        if (CharsetUtil.UTF_8.equals(charset)) {
+            return new Utf8ByteBufWriter(response.content());
+        }
+        return new OutputStreamWriter(new ByteBufOutputStream(response.content()), charset);
+    }
+
+    @Override
+    public OutputStream startStreaming() {
+        if (stream != null) {
+            return stream;
+        }
+        if (ctx == null) {
+            stream = new ByteBufOutputStream(response.content());
+            return stream;
+        }
+        DefaultHttpResponse head = new DefaultHttpResponse(response.getProtocolVersion(),
+                response.getStatus());
+        head.headers().set(response.headers());
+        head.headers().remove(CONTENT_LENGTH);
+        HttpHeaders.setTransferEncodingChunked(head);
+        ctx.write(head);
+        stream = new ChunkedOutputStream(ctx, token);
+        return stream;
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return stream instanceof ChunkedOutputStream;
+    }
+
+    @Override
+    public boolean isWritable() {
+        return ctx == null || ctx.channel().isWritable();
+    }
+
     @Override
     public void end() {
-        closed = true;
+        if (closed.getAndSet(true)) {
+            return;
+        }
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                Logger.error("Unable to send the rest of the response", e);
+            }
+        }
+        // the content is released once it has been sent
+        contentLength = isStreaming()
+                ? ((ChunkedOutputStream) stream).getBytesWritten()
+                : response.content().readableBytes();
+        if (onEnd != null) {
+            onEnd.onEnd(this);
+        }
+        notifyEndListeners();
     }
 
     public boolean isClosed() {
-        return closed;
+        return closed.get();
+    }
+
+    @Override
+    public void addEndListener(Runnable listener) {
+        synchronized (endListeners) {
+            if (!closed.get()) {
+                endListeners.add(listener);
+                return;
+            }
+        }
+        listener.run();
+    }
+
+    private void notifyEndListeners() {
+        synchronized (endListeners) {
+            for (Runnable listener : endListeners) {
+                listener.run();
+            }
+            endListeners.clear();
+        }
+    }
+
+    @Override
+    public long getContentLength() {
+        return contentLength;
     }
 
     @Override
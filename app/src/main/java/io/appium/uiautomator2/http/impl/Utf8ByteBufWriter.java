@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.http.impl;
+
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+
+/**
+ * Encodes characters into a buffer as UTF-8 without any intermediate byte arrays.
+ */
+class Utf8ByteBufWriter extends Writer {
+    private final ByteBuf buffer;
+    // the first half of a surrogate pair split between two writes
+    private char pendingHighSurrogate;
+
+    Utf8ByteBufWriter(ByteBuf buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) {
+        write(CharBuffer.wrap(chars, offset, length));
+    }
+
+    @Override
+    public void write(String str, int offset, int length) {
+        write(CharBuffer.wrap(str, offset, offset + length));
+    }
+
+    @Override
+    public Writer append(CharSequence csq) {
+        write(csq == null ? "null" : csq);
+        return this;
+    }
+
+    private void write(CharSequence chars) {
+        int start = 0;
+        int end = chars.length();
+        if (end == 0) {
+            return;
+        }
+        if (pendingHighSurrogate != 0) {
+            ByteBufUtil.writeUtf8(buffer, new String(new char[]{pendingHighSurrogate, chars.charAt(0)}));
+            pendingHighSurrogate = 0;
+            start = 1;
+        }
+        if (end > start && Character.isHighSurrogate(chars.charAt(end - 1))) {
+            pendingHighSurrogate = chars.charAt(end - 1);
+            end--;
+        }
+        if (end > start) {
+            ByteBufUtil.writeUtf8(buffer, chars.subSequence(start, end));
+        }
+    }
+
+    @Override
+    public void flush() {
+        // everything except an incomplete surrogate pair is already in the buffer
+    }
+
+    @Override
+    public void close() {
+        if (pendingHighSurrogate != 0) {
+            ByteBufUtil.writeUtf8(buffer, String.valueOf(pendingHighSurrogate));
+            pendingHighSurrogate = 0;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.http.impl;
+
+import org.json.JSONObject;
+
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.appium.uiautomator2.http.IHttpResponse;
+import io.appium.uiautomator2.server.HttpStatusCode;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.base64.Base64;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.util.CharsetUtil;
+
+/**
+ * Sends the response to a command received over WebSocket as a single text frame:
+ * {"id": correlation id of the command, "httpStatus": 200, "response": JSON body or null}
+ * Bodies of other content types are sent as JSON strings: text as is, binary data
+ * (for example raw screenshots) encoded as base64.
+ */
+public class WebSocketHttpResponse implements IHttpResponse {
+    private final ChannelHandlerContext ctx;
+    private final Object correlationId;
+    // allocated on the first write, so responses without a body never hold a buffer
+    private ByteBuf content;
+    private String contentType;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final List<Runnable> endListeners = new ArrayList<>();
+    private volatile boolean async;
+    private int status = HttpStatusCode.OK.getStatusCode();
+    private volatile long contentLength;
+
+    public WebSocketHttpResponse(ChannelHandlerContext ctx, Object correlationId) {
+        this.ctx = ctx;
+        this.correlationId = correlationId;
+    }
+
+    private ByteBuf content() {
+        if (content == null) {
+            content = ctx.alloc().buffer();
+        }
+        return content;
+    }
+
+    @Override
+    public IHttpResponse setStatus(int status) {
+        this.status = status;
+        return this;
+    }
+
+    @Override
+    public IHttpResponse setContentType(String mimeType) {
+        this.contentType = mimeType;
+        return this;
+    }
+
+    @Override
+    public IHttpResponse setHeader(String name, String value) {
+        // frames have no headers
+        return this;
+    }
+
+    @Override
+    public IHttpResponse setContent(byte[] data) {
+        content().clear().writeBytes(data);
+        return this;
+    }
+
+    @Override
+    public IHttpResponse setContent(String message) {
+        content().clear();
+        ByteBufUtil.writeUtf8(content, message);
+        return this;
+    }
+
+    @Override
+    public IHttpResponse setEncoding(Charset charset) {
+        // text frames are always UTF-8 encoded
+        return this;
+    }
+
+    @Override
+    public Writer getContentWriter() {
+        return new Utf8ByteBufWriter(content());
+    }
+
+    @Override
+    public IHttpResponse sendRedirect(String to) {
+        return setStatus(HttpStatusCode.MOVED_PERMANENTLY.getStatusCode());
+    }
+
+    @Override
+    public IHttpResponse sendTemporaryRedirect(String to) {
+        return setStatus(HttpStatusCode.FOUND.getStatusCode());
+    }
+
+    @Override
+    public IHttpResponse startAsync() {
+        async = true;
+        return this;
+    }
+
+    @Override
+    public boolean isAsync() {
+        return async;
+    }
+
+    @Override
+    public OutputStream startStreaming() {
+        // the whole response must fit into a single frame anyway
+        return new ByteBufOutputStream(content());
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    @Override
+    public boolean isWritable() {
+        // the content is buffered until the response is ended
+        return true;
+    }
+
+    @Override
+    public void end() {
+        if (closed.getAndSet(true)) {
+            return;
+        }
+        contentLength = content == null ? 0 : content.readableBytes();
+        String id = correlationId instanceof Number
+                ? correlationId.toString()
+                : correlationId == null ? "null" : JSONObject.quote(correlationId.toString());
+        ByteBuf prefix = Unpooled.copiedBuffer(String.format("{\"id\":%s,\"httpStatus\":%s,\"response\":",
+                id, status), CharsetUtil.UTF_8);
+        ByteBuf body = encodeBody();
+        ByteBuf suffix = Unpooled.copiedBuffer("}", CharsetUtil.UTF_8);
+        ctx.writeAndFlush(new TextWebSocketFrame(Unpooled.wrappedBuffer(prefix, body, suffix)));
+        notifyEndListeners();
+    }
+
+    private ByteBuf encodeBody() {
+        if (content == null || !content.isReadable()) {
+            if (content != null) {
+                content.release();
+            }
+            return Unpooled.copiedBuffer("null", CharsetUtil.UTF_8);
+        }
+        if (contentType == null || contentType.contains("json")) {
+            return content;
+        }
+        try {
+            if (contentType.startsWith("text/")) {
+                return Unpooled.copiedBuffer(JSONObject.quote(content.toString(CharsetUtil.UTF_8)),
+                        CharsetUtil.UTF_8);
+            }
+            ByteBuf encoded = Base64.encode(content, false);
+            return Unpooled.wrappedBuffer(Unpooled.copiedBuffer("\"", CharsetUtil.US_ASCII),
+                    encoded, Unpooled.copiedBuffer("\"", CharsetUtil.US_ASCII));
+        } finally {
+            content.release();
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    @Override
+    public void addEndListener(Runnable listener) {
+        synchronized (endListeners) {
+            if (!closed.get()) {
+                endListeners.add(listener);
+                return;
+            }
+        }
+        listener.run();
+    }
+
+    private void notifyEndListeners() {
+        synchronized (endListeners) {
+            for (Runnable listener : endListeners) {
+                listener.run();
+            }
+            endListeners.clear();
+        }
+    }
+
+    @Override
+    public long getContentLength() {
+        return contentLength;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appium.uiautomator2.model;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates short ids made of a random session prefix followed by the value of a counter,
+ * both encoded in base62. The counter is shared by all the sessions, so the ids are unique
+ * during the server lifetime. The random prefix makes ids returned in a different
+ * session unlikely to match the ones of the current session. Unlike
+ * {@link java.util.UUID#randomUUID()} this does not use a secure random number generator,
+ * which is slow and might block on some devices.
+ */
+public class CompactElementIdGenerator implements ElementIdGenerator {
+    private static final char[] ALPHABET =
+            "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+    private static final int PREFIX_LENGTH = 4;
+    private static final AtomicLong counter = new AtomicLong();
+
+    private final Random random = new Random();
+    private volatile String prefix;
+
+    public CompactElementIdGenerator() {
+        reset();
+    }
+
+    @Override
+    public String nextId() {
+        StringBuilder id = new StringBuilder(prefix);
+        appendBase62(id, counter.incrementAndGet());
+        return id.toString();
+    }
+
+    @Override
+    public void reset() {
+        StringBuilder newPrefix = new StringBuilder(PREFIX_LENGTH);
+        for (int i = 0; i < PREFIX_LENGTH; i++) {
+            newPrefix.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        prefix = newPrefix.toString();
+    }
+
+    static void appendBase62(StringBuilder builder, long value) {
+        int start = builder.length();
+        do {
+            builder.insert(start, ALPHABET[(int) (value % ALPHABET.length)]);
+            value /= ALPHABET.length;
+        } while (value > 0);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appium.uiautomator2.model;
+
+import android.support.annotation.Nullable;
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The place of a node in the accessibility tree: the resource ids of the node and of each of its
+ * ancestors, ordered from the root to the node itself. Views rebuilt by the application get
+ * new nodes, but usually keep their place in the tree, so the path helps to find them again.
+ * The text and the content description of the node tell whether a view at the same place
+ * still shows the same content, since list items are reused for other data.
+ * <p>
+ * Paths are captured whenever an element is found, so only the ancestors are fetched and
+ * their siblings are never scanned. Elements found by the same search share the paths of
+ * their common ancestors through a {@link Cache}, so siblings do not fetch any ancestors.
+ */
+public class ElementPath {
+    // protects from cycles in broken trees
+    private static final int MAX_DEPTH = 256;
+
+    private final String[] resourceIds;
+    private final String text;
+    private final String contentDescription;
+
+    ElementPath(String[] resourceIds) {
+        this(resourceIds, null, null);
+    }
+
+    ElementPath(String[] resourceIds, @Nullable String text, @Nullable String contentDescription) {
+        this.resourceIds = resourceIds;
+        this.text = text;
+        this.contentDescription = contentDescription;
+    }
+
+    /**
+     * @return the path of the node or null if the node is unknown
+     */
+    @Nullable
+    public static ElementPath of(@Nullable AccessibilityNodeInfo node) {
+        return of(node, new Cache());
+    }
+
+    /**
+     * @param cache the paths of the ancestors fetched while capturing the paths of the other
+     *              elements found by the same search
+     * @return the path of the node or null if the node is unknown
+     */
+    @Nullable
+    public static ElementPath of(@Nullable AccessibilityNodeInfo node, Cache cache) {
+        if (node == null) {
+            return null;
+        }
+        // the resource ids of the node and of the fetched ancestors, from the node upwards
+        List<String> resourceIds = new ArrayList<>();
+        List<NodeIdentity> ancestors = new ArrayList<>();
+        String[] knownIds = new String[0];
+        resourceIds.add(node.getViewIdResourceName());
+        AccessibilityNodeInfo current = node;
+        while (current != null && resourceIds.size() < MAX_DEPTH) {
+            NodeIdentity parentIdentity = cache.identityOfParent(current);
+            String[] parentIds = parentIdentity == null ? null : cache.resourceIds.get(parentIdentity);
+            if (parentIds != null) {
+                knownIds = parentIds;
+                break;
+            }
+            AccessibilityNodeInfo parent = current.getParent();
+            // the given node belongs to the caller, but the ancestors are fetched here
+            if (current != node) {
+                current.recycle();
+            }
+            current = parent;
+            if (current != null) {
+                resourceIds.add(current.getViewIdResourceName());
+                ancestors.add(parentIdentity);
+            }
+        }
+        if (current != null && current != node) {
+            current.recycle();
+        }
+        String[] path = Arrays.copyOf(knownIds, knownIds.length + resourceIds.size());
+        for (int i = 0; i < resourceIds.size(); i++) {
+            path[path.length - 1 - i] = resourceIds.get(i);
+        }
+        for (int i = 0; i < ancestors.size(); i++) {
+            if (ancestors.get(i) != null) {
+                cache.resourceIds.put(ancestors.get(i), Arrays.copyOf(path, path.length - 1 - i));
+            }
+        }
+        return new ElementPath(path, toString(node.getText()),
+                toString(node.getContentDescription()));
+    }
+
+    @Nullable
+    private static String toString(@Nullable CharSequence value) {
+        return value == null || value.length() == 0 ? null : value.toString();
+    }
+
+    /**
+     * @return the resource id of the node or null if it has none
+     */
+    @Nullable
+    public String getResourceId() {
+        return resourceIds.length == 0 ? null : resourceIds[resourceIds.length - 1];
+    }
+
+    /**
+     * @return true if both nodes have ancestors with the same resource ids at the same depth
+     */
+    public boolean hasSameResourceIds(ElementPath other) {
+        return Arrays.equals(resourceIds, other.resourceIds);
+    }
+
+    /**
+     * @return true if both nodes have the same non-empty text or content description
+     */
+    public boolean hasSameContent(ElementPath other) {
+        return (text != null && text.equals(other.text))
+                || (contentDescription != null && contentDescription.equals(other.contentDescription));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (String resourceId : resourceIds) {
+            builder.append('/');
+            if (resourceId != null) {
+                builder.append(resourceId);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Resource ids of the ancestors fetched during a single search. The tree changes afterwards,
+     * so the cache must not be kept any longer.
+     */
+    public static class Cache {
+        private final Map<NodeIdentity, String[]> resourceIds = new HashMap<>();
+
+        @Nullable
+        NodeIdentity identityOfParent(AccessibilityNodeInfo node) {
+            return NodeIdentity.ofParent(node);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appium.uiautomator2.model;
+
+import android.support.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Elements found during the session, addressed by their ids. Elements are also indexed by
+ * the identity of their nodes, so the id of the element found for a particular node is known
+ * without scanning the whole cache. All operations take constant time and might be called
+ * from concurrent requests.
+ * <p>
+ * The registry keeps at most the given amount of elements and forgets the least recently used
+ * ones first. Elements which have not been used for longer than the given timeout are
+ * forgotten as well. Ids of the recently evicted elements are remembered, so clients
+ * referencing them might be told their elements are stale rather than unknown.
+ */
+public class ElementRegistry {
+    private static final int EVICTED_IDS_CAPACITY = 1024;
+
+    @SuppressWarnings("serial")
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() <= capacity) {
+                return false;
+            }
+            onEvicted(eldest.getKey(), eldest.getValue());
+            return true;
+        }
+    };
+    private final Map<NodeIdentity, String> idsByNode = new HashMap<>();
+    @SuppressWarnings("serial")
+    private final Map<String, Boolean> evictedIds = new LinkedHashMap<String, Boolean>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > EVICTED_IDS_CAPACITY;
+        }
+    };
+
+    private int capacity;
+    private long timeoutNanos;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ElementRegistry() {
+        this(Integer.MAX_VALUE, 0);
+    }
+
+    /**
+     * @param capacity      the maximum amount of elements to keep
+     * @param timeoutMillis the time after which unused elements are forgotten. Zero disables it
+     */
+    public ElementRegistry(int capacity, long timeoutMillis) {
+        setCapacity(capacity);
+        setTimeout(timeoutMillis);
+    }
+
+    public synchronized void setCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be a positive number");
+        }
+        this.capacity = capacity;
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (entries.size() > capacity && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            iterator.remove();
+            onEvicted(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    public synchronized void setTimeout(long timeoutMillis) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("The timeout must not be negative");
+        }
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        evictExpired(System.nanoTime());
+    }
+
+    @Nullable
+    public synchronized AndroidElement get(String id) {
+        Entry entry = getEntry(id);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.element;
+    }
+
+    /**
+     * @return the id of the element or null if this particular instance is not registered
+     */
+    @Nullable
+    public synchronized String getId(AndroidElement element) {
+        Entry entry = getEntry(element.getId());
+        return entry != null && entry.element == element ? element.getId() : null;
+    }
+
+    /**
+     * @return the id of the element most recently registered for the node or null if there is none
+     */
+    @Nullable
+    public synchronized String getIdOfNode(NodeIdentity identity) {
+        String id = idsByNode.get(identity);
+        return id != null && getEntry(id) != null ? id : null;
+    }
+
+    /**
+     * @return the element most recently registered for the node or null if there is none
+     */
+    @Nullable
+    public synchronized AndroidElement getByNode(NodeIdentity identity) {
+        String id = idsByNode.get(identity);
+        if (id == null) {
+            return null;
+        }
+        Entry entry = getEntry(id);
+        return entry == null ? null : entry.element;
+    }
+
+    /**
+     * @return the path of the element node at the time it has been registered or null if it is unknown
+     */
+    @Nullable
+    public synchronized ElementPath getPath(String id) {
+        Entry entry = entries.get(id);
+        return entry == null ? null : entry.path;
+    }
+
+    /**
+     * @return true if the element with the given id has been forgotten because of the
+     * registry limits rather than never registered or removed explicitly
+     */
+    public synchronized boolean isEvicted(String id) {
+        return evictedIds.containsKey(id);
+    }
+
+    /**
+     * Registers the element under its id, replacing the element registered under the same id.
+     *
+     * @param identity the identity of the element node or null if it is unknown
+     */
+    public void add(AndroidElement element, @Nullable NodeIdentity identity) {
+        add(element, identity, null);
+    }
+
+    /**
+     * Registers the element under its id, replacing the element registered under the same id.
+     *
+     * @param identity the identity of the element node or null if it is unknown
+     * @param path     the path of the element node or null if it is unknown
+     */
+    public synchronized void add(AndroidElement element, @Nullable NodeIdentity identity,
+                                 @Nullable ElementPath path) {
+        long now = System.nanoTime();
+        evictExpired(now);
+        String id = element.getId();
+        evictedIds.remove(id);
+        Entry previous = entries.put(id, new Entry(element, identity, path, now));
+        if (previous != null) {
+            forgetNode(id, previous);
+        }
+        if (identity != null) {
+            idsByNode.put(identity, id);
+        }
+    }
+
+    /**
+     * Registers the element unless another element has already been registered for the same node.
+     *
+     * @param identity the identity of the element node or null if it is unknown
+     * @return the element registered for the node
+     */
+    public AndroidElement addIfAbsent(AndroidElement element, @Nullable NodeIdentity identity) {
+        return addIfAbsent(element, identity, null);
+    }
+
+    /**
+     * Registers the element unless another element has already been registered for the same node.
+     *
+     * @param identity the identity of the element node or null if it is unknown
+     * @param path     the path of the element node or null if it is unknown
+     * @return the element registered for the node
+     */
+    public synchronized AndroidElement addIfAbsent(AndroidElement element,
+                                                   @Nullable NodeIdentity identity,
+                                                   @Nullable ElementPath path) {
+        if (identity != null) {
+            AndroidElement existing = getByNode(identity);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        add(element, identity, path);
+        return element;
+    }
+
+    @Nullable
+    public synchronized AndroidElement remove(String id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return null;
+        }
+        forgetNode(id, entry);
+        return entry.element;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        idsByNode.clear();
+        evictedIds.clear();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Nullable
+    private Entry getEntry(String id) {
+        long now = System.nanoTime();
+        evictExpired(now);
+        Entry entry = entries.get(id);
+        if (entry != null) {
+            entry.lastAccessNanos = now;
+        }
+        return entry;
+    }
+
+    // entries are ordered by their last access, so the expired ones are at the beginning
+    private void evictExpired(long now) {
+        if (timeoutNanos == 0) {
+            return;
+        }
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            if (now - eldest.getValue().lastAccessNanos < timeoutNanos) {
+                break;
+            }
+            iterator.remove();
+            onEvicted(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private void onEvicted(String id, Entry entry) {
+        forgetNode(id, entry);
+        evictedIds.put(id, Boolean.TRUE);
+        evictions++;
+    }
+
+    private void forgetNode(String id, Entry entry) {
+        if (entry.identity != null && id.equals(idsByNode.get(entry.identity))) {
+            idsByNode.remove(entry.identity);
+        }
+    }
+
+    private static class Entry {
+        private final AndroidElement element;
+        private final NodeIdentity identity;
+        private final ElementPath path;
+        private long lastAccessNanos;
+
+        Entry(AndroidElement element, @Nullable NodeIdentity identity, @Nullable ElementPath path,
+              long lastAccessNanos) {
+            this.element = element;
+            this.identity = identity;
+            this.path = path;
+            this.lastAccessNanos = lastAccessNanos;
+        }
+    }
+}
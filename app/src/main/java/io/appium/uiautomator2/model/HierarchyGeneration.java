@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appium.uiautomator2.model;
+
+import android.support.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the changes of the UI reported by accessibility events, so the page source is only
+ * dumped again if the screen might have changed since the previous dump. Changes are only
+ * tracked while {@link NotificationListener} is listening, since events are missed otherwise.
+ */
+public class HierarchyGeneration {
+    private static final HierarchyGeneration INSTANCE = new HierarchyGeneration();
+
+    // distinguishes the tags issued by different server processes
+    private final String instanceId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong value = new AtomicLong();
+
+    public static HierarchyGeneration getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Invalidates the entity tags issued so far.
+     */
+    public void increment() {
+        value.incrementAndGet();
+    }
+
+    public long get() {
+        return value.get();
+    }
+
+    /**
+     * The tag must be taken both before and after the page source is dumped. The dump
+     * can only be tagged if both are equal, since it might reflect the changes made meanwhile.
+     *
+     * @return the entity tag of the current page source or null if changes are not tracked
+     */
+    @Nullable
+    public String getEntityTag() {
+        NotificationListener listener = NotificationListener.getInstance();
+        if (!listener.isListening()) {
+            return null;
+        }
+        // toasts disappear from the page source after a while without any events
+        boolean hasToast = !listener.getToastMessage().isEmpty();
+        return String.format("\"%s-%s%s\"", instanceId, value.get(), hasToast ? "-toast" : "");
+    }
+}
@@ -1,38 +1,66 @@
 package io.appium.uiautomator2.model;
 
+import android.support.annotation.Nullable;
 import android.support.test.uiautomator.BySelector;
-
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import android.view.accessibility.AccessibilityNodeInfo;
 
 import io.appium.uiautomator2.common.exceptions.ElementNotFoundException;
+import io.appium.uiautomator2.common.exceptions.StaleElementReferenceException;
 import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
+import io.appium.uiautomator2.core.AccessibilityNodeInfoGetter;
+import io.appium.uiautomator2.model.settings.ElementCacheCapacity;
+import io.appium.uiautomator2.model.settings.ElementCacheTimeout;
+import io.appium.uiautomator2.model.settings.Settings;
+import io.appium.uiautomator2.utils.Logger;
 
 import static io.appium.uiautomator2.model.internal.CustomUiDevice.getInstance;
 import static io.appium.uiautomator2.utils.Device.getAndroidElement;
 
 public class KnownElements {
-    private static Map<String, AndroidElement> cache = new HashMap<String, AndroidElement>();
+    private static final ElementRegistry registry = new ElementRegistry(
+            ((ElementCacheCapacity) Settings.ELEMENT_CACHE_CAPACITY.getSetting()).getValue().intValue(),
+            ((ElementCacheTimeout) Settings.ELEMENT_CACHE_TIMEOUT.getSetting()).getValue());
 
-    private static String getCacheKey(AndroidElement element) {
-        for (Map.Entry<String, AndroidElement> entry : cache.entrySet()) {
-            if (entry.getValue().equals(element)) {
-                return entry.getKey();
-            }
-        }
-        return null;
+    private static volatile ElementIdGenerator idGenerator = new CompactElementIdGenerator();
+
+    public static ElementRegistry getRegistry() {
+        return registry;
+    }
+
+    public static void setIdGenerator(ElementIdGenerator generator) {
+        idGenerator = generator;
+    }
+
+    /**
+     * @return a new id for a found element
+     */
+    public static String nextId() {
+        return idGenerator.nextId();
     }
 
     public static String getIdOfElement(AndroidElement element) {
-        if (cache.containsValue(element)) {
-            return getCacheKey(element);
-        }
-        return null;
+        return registry.getId(element);
+    }
+
+    /**
+     * @return the id of the element found for the given node or null if there is none
+     */
+    @Nullable
+    public static String getIdOfNode(NodeIdentity identity) {
+        return registry.getIdOfNode(identity);
     }
 
+    /**
+     * @return the element or null if no element has been found with the given id
+     * @throws StaleElementReferenceException if the element has been evicted from the cache
+     */
     public static AndroidElement getElementFromCache(String id) {
-        return cache.get(id);
+        AndroidElement element = registry.get(id);
+        if (element == null && registry.isEvicted(id)) {
+            throw new StaleElementReferenceException(String.format(
+                    "The element '%s' has been evicted from the cache. Find it again", id));
+        }
+        return element;
     }
 
     /**
@@ -45,25 +73,79 @@ public class KnownElements {
         if (ui2Object == null) {
             throw new ElementNotFoundException();
         }
-        String id = UUID.randomUUID().toString();
-        AndroidElement androidElement = getAndroidElement(id, ui2Object, by);
-        cache.put(androidElement.getId(), androidElement);
-        return androidElement;
+        return register(ui2Object, by);
     }
 
-    public String add(AndroidElement element) {
-        if (cache.containsValue(element)) {
-            return getCacheKey(element);
+    /**
+     * Wraps the found object into an element and registers it. If an element has already been
+     * found for the same node, that element is returned instead, so the same view keeps its id.
+     *
+     * @param uiObject the object found by UiAutomator
+     * @param by       user provided selector criteria from appium client
+     * @return the registered element
+     */
+    public static AndroidElement register(Object uiObject, @Nullable By by) throws UiAutomator2Exception {
+        return register(uiObject, by, new ElementPath.Cache());
+    }
+
+    /**
+     * @param paths the paths of the ancestors shared by the elements found by the same search
+     * @see #register(Object, By)
+     */
+    public static AndroidElement register(Object uiObject, @Nullable By by, ElementPath.Cache paths)
+            throws UiAutomator2Exception {
+        AccessibilityNodeInfo node = AccessibilityNodeInfoGetter.cachedFromUiObject(uiObject);
+        NodeIdentity identity = NodeIdentity.of(node);
+        if (identity != null) {
+            AndroidElement existing = registry.getByNode(identity);
+            if (existing != null) {
+                return existing;
+            }
         }
-        cache.put(element.getId(), element);
-        return element.getId();
+        return registry.addIfAbsent(getAndroidElement(nextId(), uiObject, by), identity,
+                ElementPath.of(node, paths));
     }
 
-    public void clear() {
-        if (!cache.isEmpty()) {
-            cache.clear();
-            System.gc();
+    /**
+     * Finds the current node of the element whose view has been rebuilt by the application
+     * and binds the element id to it, so the element can be used again.
+     *
+     * @param id the id of the stale element
+     * @return true if the node has been found unambiguously
+     */
+    public static boolean rehydrate(String id) {
+        AndroidElement element = registry.get(id);
+        ElementPath path = registry.getPath(id);
+        if (!(element instanceof UiObject2Element) || path == null) {
+            return false;
+        }
+        By by = element.getBy();
+        Object uiObject;
+        try {
+            uiObject = StaleElementResolver.resolve(by, path);
+        } catch (ClassNotFoundException | UiAutomator2Exception e) {
+            Logger.debug(String.format("Unable to find the element '%s' again: %s", id, e.getMessage()));
+            return false;
+        }
+        if (uiObject == null) {
+            return false;
         }
+        AccessibilityNodeInfo node = AccessibilityNodeInfoGetter.cachedFromUiObject(uiObject);
+        registry.add(getAndroidElement(id, uiObject, by), NodeIdentity.of(node), ElementPath.of(node));
+        Logger.info(String.format("The element '%s' has been found again at %s", id, path));
+        return true;
+    }
 
+    public String add(AndroidElement element) {
+        String id = registry.getId(element);
+        if (id != null) {
+            return id;
+        }
+        return registry.addIfAbsent(element, NodeIdentity.of(element)).getId();
+    }
+
+    public void clear() {
+        registry.clear();
+        idGenerator.reset();
     }
 }
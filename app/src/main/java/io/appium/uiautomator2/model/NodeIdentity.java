@@ -0,0 +1,126 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appium.uiautomator2.model;
+
+import android.support.annotation.Nullable;
+import android.support.test.uiautomator.UiObject2;
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import java.lang.reflect.Method;
+
+import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
+import io.appium.uiautomator2.core.AccessibilityNodeInfoGetter;
+import io.appium.uiautomator2.utils.Logger;
+
+import static io.appium.uiautomator2.utils.ReflectionUtils.invoke;
+import static io.appium.uiautomator2.utils.ReflectionUtils.method;
+
+/**
+ * Identifies the on-screen node an element has been found for. Accessibility nodes are equal
+ * if they have the same window id and source node id, no matter how many times they have been
+ * fetched.
+ */
+public class NodeIdentity {
+    private static Method getSourceNodeId;
+    private static Method getParentNodeId;
+
+    private final int windowId;
+    private final long sourceNodeId;
+
+    public NodeIdentity(int windowId, long sourceNodeId) {
+        this.windowId = windowId;
+        this.sourceNodeId = sourceNodeId;
+    }
+
+    /**
+     * Only elements backed by {@link UiObject2} are bound to a particular node.
+     * {@link android.support.test.uiautomator.UiObject} instances are looked up by their
+     * selectors every time they are used.
+     *
+     * @return the identity of the node the element has been found for or null if it is unknown
+     */
+    @Nullable
+    public static NodeIdentity of(AndroidElement element) {
+        return ofUiObject(element.getUiObject());
+    }
+
+    /**
+     * @param uiObject the object found by UiAutomator
+     * @return the identity of the node the object has been found for or null if it is unknown
+     */
+    @Nullable
+    public static NodeIdentity ofUiObject(Object uiObject) {
+        return of(AccessibilityNodeInfoGetter.cachedFromUiObject(uiObject));
+    }
+
+    @Nullable
+    public static NodeIdentity of(@Nullable AccessibilityNodeInfo node) {
+        if (node == null) {
+            return null;
+        }
+        try {
+            if (getSourceNodeId == null) {
+                getSourceNodeId = method(AccessibilityNodeInfo.class, "getSourceNodeId");
+            }
+            return new NodeIdentity(node.getWindowId(), (long) invoke(getSourceNodeId, node));
+        } catch (UiAutomator2Exception e) {
+            Logger.debug("Unable to get the node identity: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The parent is identified by the id the node keeps, so it is not fetched.
+     *
+     * @return the identity of the parent of the node or null if it is unknown
+     */
+    @Nullable
+    public static NodeIdentity ofParent(AccessibilityNodeInfo node) {
+        try {
+            if (getParentNodeId == null) {
+                getParentNodeId = method(AccessibilityNodeInfo.class, "getParentNodeId");
+            }
+            return new NodeIdentity(node.getWindowId(), (long) invoke(getParentNodeId, node));
+        } catch (UiAutomator2Exception e) {
+            Logger.debug("Unable to get the parent node identity: ", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof NodeIdentity)) {
+            return false;
+        }
+        NodeIdentity other = (NodeIdentity) o;
+        return windowId == other.windowId && sourceNodeId == other.sourceNodeId;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * windowId + (int) (sourceNodeId ^ (sourceNodeId >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("NodeIdentity{windowId=%s, sourceNodeId=%s}", windowId, sourceNodeId);
+    }
+}
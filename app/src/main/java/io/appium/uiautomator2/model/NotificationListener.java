@@ -59,6 +59,8 @@ public final class NotificationListener implements OnAccessibilityEventListener
         originalListener = uiAutomation.getOnAccessibilityEventListener();
         Logger.debug("Original listener: " + originalListener);
         uiAutomation.setOnAccessibilityEventListener(this);
+        // the changes made while nobody was listening are unknown
+        HierarchyGeneration.getInstance().increment();
     }
 
     public void stop() {
@@ -68,10 +70,20 @@ public final class NotificationListener implements OnAccessibilityEventListener
         }
         Logger.debug("Stopping toast notification listener.");
         uiAutomation.setOnAccessibilityEventListener(originalListener);
+        UiEventStream.getInstance().closeAll("The notification listener has been stopped");
     }
 
     @Override
     public synchronized void onAccessibilityEvent(AccessibilityEvent event) {
+        HierarchyGeneration.getInstance().increment();
+        UiEventStream eventStream = UiEventStream.getInstance();
+        if (eventStream.hasSubscribers()) {
+            UiEvent uiEvent = UiEvent.fromAccessibilityEvent(event);
+            if (uiEvent != null) {
+                eventStream.publish(uiEvent);
+            }
+        }
+
         if (event.getEventType() == AccessibilityEvent.TYPE_NOTIFICATION_STATE_CHANGED) {
             Logger.debug("Catch toast message: " + event);
             List<CharSequence> text = event.getText();
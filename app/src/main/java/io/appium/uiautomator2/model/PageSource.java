@@ -0,0 +1,72 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.model;
+
+import android.support.annotation.Nullable;
+
+import org.w3c.dom.Document;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import io.appium.uiautomator2.http.EntityTagged;
+import io.appium.uiautomator2.http.StreamableValue;
+
+/**
+ * XML page source, which is serialized directly to the client
+ * instead of being converted to a string first.
+ */
+public class PageSource implements StreamableValue, EntityTagged {
+    private final Document document;
+    private final Transformer transformer;
+    private final String entityTag;
+
+    public PageSource(Document document, Transformer transformer) {
+        this(document, transformer, null);
+    }
+
+    /**
+     * @param entityTag the tag of the UI state the document has been dumped from or null
+     */
+    public PageSource(Document document, Transformer transformer, @Nullable String entityTag) {
+        this.document = document;
+        this.transformer = transformer;
+        this.entityTag = entityTag;
+    }
+
+    @Override
+    public String getEntityTag() {
+        return entityTag;
+    }
+
+    /**
+     * The source may be sent to several coalesced requests at once, while neither the transformer
+     * nor the document may be used by several threads simultaneously.
+     */
+    @Override
+    public synchronized void writeTo(Writer writer) throws IOException {
+        try {
+            transformer.transform(new DOMSource(document), new StreamResult(writer));
+        } catch (TransformerException e) {
+            throw new IOException("Could not parse xml hierarchy to string", e);
+        }
+    }
+}
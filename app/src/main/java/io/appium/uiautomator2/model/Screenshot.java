@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.model;
+
+import android.support.annotation.Nullable;
+import android.util.Base64;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+import io.appium.uiautomator2.http.StreamableValue;
+
+/**
+ * Compressed screenshot, which is sent to the client as a Base64-encoded string.
+ * The string is encoded block by block while it is being written,
+ * so it never exists in memory as a whole.
+ * Clients which accept the image type explicitly get the raw image bytes instead.
+ */
+public class Screenshot implements StreamableValue {
+    public static final String PNG = "image/png";
+    public static final String JPEG = "image/jpeg";
+
+    // must be a multiple of 57 bytes, which is encoded into exactly one 76-char line,
+    // so the concatenated blocks are equal to the whole array encoded at once
+    private static final int BLOCK_SIZE = 57 * 64;
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    private final byte[] data;
+    private final String mimeType;
+
+    public Screenshot(byte[] png) {
+        this(png, PNG);
+    }
+
+    public Screenshot(byte[] data, String mimeType) {
+        this.data = data;
+        this.mimeType = mimeType;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    /**
+     * Selects the image type requested by the Accept header.
+     * Wildcards other than image/* do not count, so clients which do not ask for an image
+     * explicitly keep getting the JSON response. The image is only preferred if its quality
+     * is not lower than the quality of application/json or of the wildcards matching it.
+     *
+     * @param accept the value of the Accept request header
+     * @return {@link #PNG}, {@link #JPEG} or null if the JSON response should be sent
+     */
+    @Nullable
+    public static String negotiateMimeType(@Nullable String accept) {
+        if (accept == null) {
+            return null;
+        }
+        String result = null;
+        float resultQuality = 0;
+        float jsonQuality = 0;
+        for (String mediaRange : accept.split(",")) {
+            String[] parts = mediaRange.split(";");
+            String type = parts[0].trim().toLowerCase();
+            float quality = parseQuality(parts);
+            if ("application/json".equals(type) || "application/*".equals(type)
+                    || "*/*".equals(type)) {
+                jsonQuality = Math.max(jsonQuality, quality);
+                continue;
+            }
+            if ("image/*".equals(type)) {
+                type = PNG;
+            } else if (!PNG.equals(type) && !JPEG.equals(type)) {
+                continue;
+            }
+            if (quality > resultQuality) {
+                result = type;
+                resultQuality = quality;
+            }
+        }
+        return resultQuality >= jsonQuality ? result : null;
+    }
+
+    private static float parseQuality(String[] mediaRangeParts) {
+        float quality = 1;
+        for (int i = 1; i < mediaRangeParts.length; i++) {
+            String[] parameter = mediaRangeParts[i].split("=");
+            if (parameter.length == 2 && "q".equals(parameter[0].trim())) {
+                try {
+                    quality = Float.parseFloat(parameter[1].trim());
+                } catch (NumberFormatException e) {
+                    quality = 0;
+                }
+            }
+        }
+        return quality;
+    }
+
+    @Override
+    public void writeTo(Writer writer) throws IOException {
+        for (int offset = 0; offset < data.length; offset += BLOCK_SIZE) {
+            int length = Math.min(BLOCK_SIZE, data.length - offset);
+            writer.write(new String(Base64.encode(data, offset, length, Base64.DEFAULT), ASCII));
+        }
+    }
+}
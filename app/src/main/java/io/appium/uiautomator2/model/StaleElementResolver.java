@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appium.uiautomator2.model;
+
+import android.support.annotation.Nullable;
+import android.support.test.uiautomator.BySelector;
+
+import java.util.List;
+
+import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
+import io.appium.uiautomator2.core.AccessibilityNodeInfoGetter;
+import io.appium.uiautomator2.utils.Logger;
+
+import static io.appium.uiautomator2.model.internal.CustomUiDevice.getInstance;
+
+/**
+ * Finds the current node of an element whose view has been rebuilt by the application.
+ * The element locator is evaluated once more and only the nodes with the same resource ids
+ * on their path are considered. Since list items are reused for other data, such a node must
+ * also have the same text or content description as the original one, unless it is the only
+ * node the locator finds. Nothing is picked if the match is ambiguous.
+ */
+public class StaleElementResolver {
+
+    /**
+     * @param by   the locator the element has been found with
+     * @param path the path of the original element node
+     * @return the {@link android.support.test.uiautomator.UiObject2} of the current node or
+     * null if it cannot be determined unambiguously
+     */
+    @Nullable
+    public static Object resolve(@Nullable By by, ElementPath path) throws ClassNotFoundException,
+            UiAutomator2Exception {
+        List<Object> candidates = findCandidates(by, path);
+        return candidates == null ? null : select(candidates, path);
+    }
+
+    /**
+     * @param candidates the objects found by the element locator
+     * @param path       the path of the original element node
+     * @return the object of the current node or null if it cannot be determined unambiguously
+     */
+    @Nullable
+    static Object select(List<Object> candidates, ElementPath path) {
+        boolean isLocatorUnique = candidates.size() == 1;
+        Object match = null;
+        int matchesCount = 0;
+        for (Object candidate : candidates) {
+            ElementPath candidatePath = ElementPath.of(
+                    AccessibilityNodeInfoGetter.cachedFromUiObject(candidate));
+            if (candidatePath == null || !candidatePath.hasSameResourceIds(path)
+                    || !(isLocatorUnique || candidatePath.hasSameContent(path))) {
+                continue;
+            }
+            match = candidate;
+            matchesCount++;
+        }
+        if (matchesCount > 1) {
+            Logger.debug(String.format("%s nodes match the path %s", matchesCount, path));
+        }
+        return matchesCount == 1 ? match : null;
+    }
+
+    @Nullable
+    private static List<Object> findCandidates(@Nullable By by, ElementPath path)
+            throws ClassNotFoundException, UiAutomator2Exception {
+        BySelector selector;
+        if (by instanceof By.ById) {
+            String resourceId = path.getResourceId();
+            if (resourceId == null) {
+                return null;
+            }
+            selector = android.support.test.uiautomator.By.res(resourceId);
+        } else if (by instanceof By.ByAccessibilityId) {
+            selector = android.support.test.uiautomator.By.desc(by.getElementLocator());
+        } else if (by instanceof By.ByClass) {
+            selector = android.support.test.uiautomator.By.clazz(by.getElementLocator());
+        } else if (by instanceof By.ByXPath) {
+            return getInstance().findObjects(XPathFinder.getNodesList(by.getElementLocator(), null));
+        } else {
+            return null;
+        }
+        return getInstance().findObjects(selector);
+    }
+}
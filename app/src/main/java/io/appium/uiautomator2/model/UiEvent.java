@@ -0,0 +1,121 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appium.uiautomator2.model;
+
+import android.app.Notification;
+import android.support.annotation.Nullable;
+import android.view.accessibility.AccessibilityEvent;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Snapshot of an accessibility event, which is pushed to the subscribers of {@link UiEventStream}.
+ * Accessibility events are recycled once they have been handled, so the interesting data is
+ * copied immediately.
+ */
+public class UiEvent {
+    public static final String WINDOW_STATE_CHANGED = "windowStateChanged";
+    public static final String CONTENT_CHANGED = "contentChanged";
+    public static final String SCROLLED = "scrolled";
+    public static final String TOAST = "toast";
+    public static final String NOTIFICATION = "notification";
+    public static final List<String> TYPES = Collections.unmodifiableList(Arrays.asList(
+            WINDOW_STATE_CHANGED, CONTENT_CHANGED, SCROLLED, TOAST, NOTIFICATION));
+
+    private final String type;
+    private final String packageName;
+    private final String className;
+    private final List<String> text;
+    private final long timestamp;
+
+    public UiEvent(String type, @Nullable String packageName, @Nullable String className,
+                   List<String> text, long timestamp) {
+        this.type = type;
+        this.packageName = packageName;
+        this.className = className;
+        this.text = text;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @return the snapshot of the event or null if events of this type are not streamed
+     */
+    @Nullable
+    public static UiEvent fromAccessibilityEvent(AccessibilityEvent event) {
+        final String type;
+        switch (event.getEventType()) {
+            case AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED:
+                type = WINDOW_STATE_CHANGED;
+                break;
+            case AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED:
+                type = CONTENT_CHANGED;
+                break;
+            case AccessibilityEvent.TYPE_VIEW_SCROLLED:
+                type = SCROLLED;
+                break;
+            case AccessibilityEvent.TYPE_NOTIFICATION_STATE_CHANGED:
+                // toasts do not carry any notification
+                type = event.getParcelableData() instanceof Notification ? NOTIFICATION : TOAST;
+                break;
+            default:
+                return null;
+        }
+        List<String> text = new ArrayList<>();
+        for (CharSequence item : event.getText()) {
+            if (item != null) {
+                text.add(item.toString());
+            }
+        }
+        return new UiEvent(type, toString(event.getPackageName()), toString(event.getClassName()),
+                text, System.currentTimeMillis());
+    }
+
+    private static String toString(@Nullable CharSequence value) {
+        return value == null ? null : value.toString();
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    @Nullable
+    public String getPackageName() {
+        return packageName;
+    }
+
+    /**
+     * @return the event formatted as a text/event-stream message
+     */
+    public String toServerSentEvent() throws JSONException {
+        JSONObject data = new JSONObject()
+                .put("type", type)
+                .put("package", packageName == null ? JSONObject.NULL : packageName)
+                .put("className", className == null ? JSONObject.NULL : className)
+                .put("text", new JSONArray(text))
+                .put("timestamp", timestamp);
+        // the JSON representation never contains line breaks, so it fits into a single data field
+        return "event: " + type + "\ndata: " + data.toString() + "\n\n";
+    }
+}
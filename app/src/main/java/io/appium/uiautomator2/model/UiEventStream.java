@@ -0,0 +1,257 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appium.uiautomator2.model;
+
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.appium.uiautomator2.http.AsyncResponseValue;
+import io.appium.uiautomator2.http.IHttpResponse;
+import io.appium.uiautomator2.server.HttpStatusCode;
+import io.appium.uiautomator2.utils.CancellationToken;
+import io.appium.uiautomator2.utils.Logger;
+
+/**
+ * Pushes UI events to clients subscribed with long-lived text/event-stream responses, so they
+ * do not need to poll the page source, toasts or alerts to notice changes. Events are captured
+ * by {@link NotificationListener} and delivered by a background thread, so the accessibility
+ * callbacks are never blocked by slow clients. Events, which cannot be queued, are dropped.
+ * Clients, which do not read their streams fast enough, miss events instead of delaying
+ * the delivery to the others.
+ */
+public class UiEventStream implements Runnable {
+    public static final String CONTENT_TYPE = "text/event-stream";
+    private static final UiEventStream INSTANCE = new UiEventStream();
+    private static final int QUEUE_CAPACITY = 256;
+    // keeps idle connections open through proxies
+    private static final long HEARTBEAT_INTERVAL_MILLIS = 15000;
+    // how soon the streams of disconnected clients are closed
+    private static final long DISCONNECT_CHECK_INTERVAL_MILLIS = 1000;
+
+    private final BlockingQueue<UiEvent> events = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private Thread dispatcher;
+
+    public static UiEventStream getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    public void publish(UiEvent event) {
+        if (!events.offer(event)) {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public int getSubscribersCount() {
+        return subscribers.size();
+    }
+
+    synchronized void subscribe(Subscriber subscriber) {
+        subscribers.add(subscriber);
+        if (dispatcher == null) {
+            dispatcher = new Thread(this, "appium-events");
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        }
+    }
+
+    /**
+     * Ends the streams of all subscribers, for example because no more events are going to be
+     * captured after {@link NotificationListener} has been stopped.
+     */
+    public void closeAll(String reason) {
+        String message = String.format("event: close\ndata: %s\n\n", reason);
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.trySend(message);
+            } catch (IOException e) {
+                Logger.debug("Unable to send the UI event: ", e.getMessage());
+            }
+            unsubscribe(subscriber);
+        }
+        events.clear();
+    }
+
+    @Override
+    public void run() {
+        long lastHeartbeatNanos = System.nanoTime();
+        while (true) {
+            UiEvent event;
+            try {
+                event = events.poll(DISCONNECT_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (event != null) {
+                dispatch(event);
+            } else if (System.nanoTime() - lastHeartbeatNanos
+                    >= TimeUnit.MILLISECONDS.toNanos(HEARTBEAT_INTERVAL_MILLIS)) {
+                lastHeartbeatNanos = System.nanoTime();
+                sendToAll(null, ": heartbeat\n\n");
+            } else {
+                removeCancelled();
+            }
+        }
+    }
+
+    void dispatch(UiEvent event) {
+        String message;
+        try {
+            message = event.toServerSentEvent();
+        } catch (JSONException e) {
+            Logger.error("Unable to format the UI event", e);
+            return;
+        }
+        sendToAll(event, message);
+    }
+
+    private void sendToAll(UiEvent event, String message) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.cancellationToken.isCancelled()) {
+                unsubscribe(subscriber);
+            } else if (event == null || subscriber.accepts(event)) {
+                try {
+                    if (!subscriber.trySend(message)) {
+                        Logger.debug("Skipping the UI event for the subscriber, "
+                                + "which has not read the previous ones yet");
+                    }
+                } catch (IOException e) {
+                    Logger.debug("Unable to send the UI event: " + e.getMessage());
+                    unsubscribe(subscriber);
+                }
+            }
+        }
+    }
+
+    void removeCancelled() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.cancellationToken.isCancelled()) {
+                unsubscribe(subscriber);
+            }
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            Logger.info("UI event stream subscriber has disconnected");
+            subscriber.close();
+        }
+    }
+
+    /**
+     * Subscription of a single client. Empty filters accept all events.
+     */
+    public static class Subscriber implements AsyncResponseValue {
+        private final Set<String> types;
+        private final Set<String> packages;
+        private final CancellationToken cancellationToken;
+        private IHttpResponse response;
+        private Writer writer;
+
+        public Subscriber(Set<String> types, Set<String> packages,
+                          CancellationToken cancellationToken) {
+            this.types = types;
+            this.packages = packages;
+            this.cancellationToken = cancellationToken;
+        }
+
+        public boolean accepts(UiEvent event) {
+            return (types.isEmpty() || types.contains(event.getType()))
+                    && (packages.isEmpty() || packages.contains(event.getPackageName()));
+        }
+
+        @Override
+        public void start(IHttpResponse response) {
+            this.response = response;
+            response.startAsync()
+                    .setStatus(HttpStatusCode.OK.getStatusCode())
+                    .setContentType(CONTENT_TYPE)
+                    .setHeader("Cache-Control", "no-cache");
+            OutputStream stream = response.startStreaming();
+            if (!response.isStreaming()) {
+                // WebSocket commands are answered with a single frame, so they cannot subscribe
+                String message = "UI events can only be streamed over HTTP connections";
+                Logger.error(message);
+                response.setStatus(HttpStatusCode.BAD_REQUEST.getStatusCode())
+                        .setContentType("text/plain")
+                        .setContent(message)
+                        .end();
+                return;
+            }
+            writer = new OutputStreamWriter(stream, Charset.forName("UTF-8"));
+            try {
+                // the headers are only flushed together with the first chunk
+                send(": connected\n\n");
+            } catch (IOException e) {
+                Logger.error("Unable to start the UI event stream", e);
+                close();
+                return;
+            }
+            getInstance().subscribe(this);
+        }
+
+        synchronized void send(String message) throws IOException {
+            writer.write(message);
+            writer.flush();
+        }
+
+        /**
+         * Sends the message unless the client has not read the previous ones yet,
+         * so the delivery never waits for it.
+         *
+         * @return false if the message has been skipped
+         */
+        synchronized boolean trySend(String message) throws IOException {
+            if (!response.isWritable()) {
+                return false;
+            }
+            send(message);
+            return true;
+        }
+
+        synchronized void close() {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                Logger.debug("Unable to close the UI event stream: " + e.getMessage());
+            }
+            response.end();
+        }
+    }
+}
@@ -26,7 +26,6 @@ import android.view.accessibility.AccessibilityNodeInfo;
 import android.widget.Toast;
 
 import java.util.List;
-import java.util.UUID;
 
 import io.appium.uiautomator2.common.exceptions.InvalidCoordinatesException;
 import io.appium.uiautomator2.common.exceptions.InvalidSelectorException;
@@ -196,7 +195,7 @@ public class UiObject2Element implements AndroidElement {
             CustomUiSelector customUiSelector = new CustomUiSelector(uiSelector);
             uiSelector = customUiSelector.getUiSelector(nodeInfo);
             UiObject uiObject = (UiObject) CustomUiDevice.getInstance().findObject(uiSelector);
-            String id = UUID.randomUUID().toString();
+            String id = KnownElements.nextId();
             AndroidElement androidElement = getAndroidElement(id, uiObject, by);
             return androidElement.getChildren(selector, by);
         }
@@ -42,6 +42,7 @@ import io.appium.uiautomator2.utils.Attribute;
 import io.appium.uiautomator2.utils.Device;
 import io.appium.uiautomator2.utils.Logger;
 import io.appium.uiautomator2.utils.NodeInfoList;
+import io.appium.uiautomator2.utils.ServerTiming;
 
 import static android.support.test.internal.util.Checks.checkNotNull;
 
@@ -138,18 +139,38 @@ public class XPathFinder implements Finder {
     }
 
     public static UiAutomationElement refreshUiElementTree() {
-        return UiAutomationElement.newRootElement(getRootAccessibilityNode(),
-                NotificationListener.getInstance().getToastMessage());
+        AccessibilityNodeInfo root = getRootAccessibilityNode();
+        long startNanos = System.nanoTime();
+        try {
+            return UiAutomationElement.newRootElement(root,
+                    NotificationListener.getInstance().getToastMessage());
+        } finally {
+            ServerTiming.mark("tree", startNanos);
+        }
     }
 
     public static UiAutomationElement refreshUiElementTree(AccessibilityNodeInfo nodeInfo) {
-        return UiAutomationElement.newRootElement(nodeInfo, null /*Toast Messages*/);
+        long startNanos = System.nanoTime();
+        try {
+            return UiAutomationElement.newRootElement(nodeInfo, null /*Toast Messages*/);
+        } finally {
+            ServerTiming.mark("tree", startNanos);
+        }
     }
 
     public static AccessibilityNodeInfo getRootAccessibilityNode() throws UiAutomator2Exception {
         final long timeoutMillis = 10000;
         Device.waitForIdle();
 
+        long startNanos = System.nanoTime();
+        try {
+            return findRootAccessibilityNode(timeoutMillis);
+        } finally {
+            ServerTiming.mark("root", startNanos);
+        }
+    }
+
+    private static AccessibilityNodeInfo findRootAccessibilityNode(long timeoutMillis) {
         long end = SystemClock.uptimeMillis() + timeoutMillis;
         while (end > SystemClock.uptimeMillis()) {
             AccessibilityNodeInfo root = null;
@@ -215,16 +236,21 @@ public class XPathFinder implements Finder {
             throw new UiAutomator2Exception(e);
         }
         final SparseArray<UiElement<?, ?>> uiElementsMapping = new SparseArray<>();
+        long startNanos = System.nanoTime();
         final Element domNode = toDOMElement((UiElement<?, ?>) context, document, uiElementsMapping);
         document.appendChild(domNode);
+        ServerTiming.mark("dom", startNanos);
         final NodeList nodes;
         final NodeInfoList matchesList = new NodeInfoList();
+        startNanos = System.nanoTime();
         try {
             nodes = (NodeList) XPATH_COMPILER
                     .compile(xPathString)
                     .evaluate(domNode, XPathConstants.NODESET);
         } catch (XPathExpressionException e) {
             throw new InvalidSelectorException(e);
+        } finally {
+            ServerTiming.mark("xpath", startNanos);
         }
         for (int i = 0; i < nodes.getLength(); i++) {
             if (nodes.item(i).getNodeType() != Node.ELEMENT_NODE) {
@@ -0,0 +1,46 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.settings;
+
+/**
+ * The maximum amount of UI commands waiting for execution.
+ * Commands received while the queue is full are rejected with 503 status.
+ */
+public class CommandQueueCapacity extends AbstractSetting<Long> {
+    private static final String SETTING_NAME = "commandQueueCapacity";
+    private static final long DEFAULT_CAPACITY = 32;
+
+    private long value = DEFAULT_CAPACITY;
+
+    public CommandQueueCapacity() {
+        super(Long.class, SETTING_NAME);
+    }
+
+    @Override
+    public Long getValue() {
+        return value;
+    }
+
+    @Override
+    protected void apply(Long capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The value of %s must be a positive number. %s is given", getName(), capacity));
+        }
+        this.value = capacity;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appium.uiautomator2.model.settings;
+
+import io.appium.uiautomator2.model.KnownElements;
+
+/**
+ * The maximum amount of found elements the server keeps during a session.
+ * The least recently used elements are forgotten first.
+ */
+public class ElementCacheCapacity extends AbstractSetting<Long> {
+    private static final String SETTING_NAME = "elementCacheCapacity";
+    private static final long DEFAULT_CAPACITY = 5000;
+
+    private long value = DEFAULT_CAPACITY;
+
+    public ElementCacheCapacity() {
+        super(Long.class, SETTING_NAME);
+    }
+
+    @Override
+    public Long getValue() {
+        return value;
+    }
+
+    @Override
+    protected void apply(Long capacity) {
+        if (capacity < 1 || capacity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(
+                    "The value of %s must be a positive number not greater than %s. %s is given",
+                    getName(), Integer.MAX_VALUE, capacity));
+        }
+        this.value = capacity;
+        KnownElements.getRegistry().setCapacity(capacity.intValue());
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appium.uiautomator2.model.settings;
+
+import io.appium.uiautomator2.model.KnownElements;
+
+/**
+ * The amount of milliseconds after which found elements which have not been used are
+ * forgotten by the server. Zero keeps them until the capacity is exceeded.
+ */
+public class ElementCacheTimeout extends AbstractSetting<Long> {
+    private static final String SETTING_NAME = "elementCacheTimeout";
+    private static final long DEFAULT_TIMEOUT = 0;
+
+    private long value = DEFAULT_TIMEOUT;
+
+    public ElementCacheTimeout() {
+        super(Long.class, SETTING_NAME);
+    }
+
+    @Override
+    public Long getValue() {
+        return value;
+    }
+
+    @Override
+    protected void apply(Long timeout) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "The value of %s must not be negative. %s is given", getName(), timeout));
+        }
+        this.value = timeout;
+        KnownElements.getRegistry().setTimeout(timeout);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.model.settings;
+
+import android.util.Log;
+
+import io.appium.uiautomator2.utils.Logger;
+
+/**
+ * The lowest level of messages written to logcat: "debug", "info", "warn", "error" or "none".
+ */
+public class LogLevel extends AbstractSetting<String> {
+    private static final String SETTING_NAME = "logLevel";
+
+    public LogLevel() {
+        super(String.class, SETTING_NAME);
+    }
+
+    @Override
+    public String getValue() {
+        int priority = Logger.getLevel();
+        if (priority <= Log.DEBUG) {
+            return "debug";
+        }
+        if (priority <= Log.INFO) {
+            return "info";
+        }
+        if (priority <= Log.WARN) {
+            return "warn";
+        }
+        if (priority <= Log.ERROR) {
+            return "error";
+        }
+        return "none";
+    }
+
+    @Override
+    protected void apply(String level) {
+        switch (level.toLowerCase()) {
+            case "debug":
+                Logger.setLevel(Log.DEBUG);
+                break;
+            case "info":
+                Logger.setLevel(Log.INFO);
+                break;
+            case "warn":
+                Logger.setLevel(Log.WARN);
+                break;
+            case "error":
+                Logger.setLevel(Log.ERROR);
+                break;
+            case "none":
+                Logger.setLevel(Integer.MAX_VALUE);
+                break;
+            default:
+                throw new IllegalArgumentException(String.format(
+                        "The value of %s must be one of debug, info, warn, error or none. %s is given",
+                        getName(), level));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.model.settings;
+
+import io.appium.uiautomator2.utils.Logger;
+
+/**
+ * Log messages, including the logged responses, are truncated to this number of characters.
+ */
+public class LogMessageMaxLength extends AbstractSetting<Long> {
+    private static final String SETTING_NAME = "logMessageMaxLength";
+
+    public LogMessageMaxLength() {
+        super(Long.class, SETTING_NAME);
+    }
+
+    @Override
+    public Long getValue() {
+        return (long) Logger.getMaxMessageLength();
+    }
+
+    @Override
+    protected void apply(Long length) {
+        if (length < 1 || length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(
+                    "The value of %s must be a positive integer. %s is given", getName(), length));
+        }
+        Logger.setMaxMessageLength(length.intValue());
+    }
+}
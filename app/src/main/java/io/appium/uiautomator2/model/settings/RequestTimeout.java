@@ -0,0 +1,48 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appium.uiautomator2.model.settings;
+
+/**
+ * The default amount of milliseconds clients wait for the result of a command.
+ * Commands which are not completed within this time are cancelled. The value of
+ * the X-Request-Timeout request header takes precedence. Zero disables the deadline.
+ */
+public class RequestTimeout extends AbstractSetting<Long> {
+    private static final String SETTING_NAME = "requestTimeout";
+    private static final long DEFAULT_TIMEOUT = 0;
+
+    private long value = DEFAULT_TIMEOUT;
+
+    public RequestTimeout() {
+        super(Long.class, SETTING_NAME);
+    }
+
+    @Override
+    public Long getValue() {
+        return value;
+    }
+
+    @Override
+    protected void apply(Long timeout) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "The value of %s must not be negative. %s is given", getName(), timeout));
+        }
+        this.value = timeout;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.model.settings;
+
+/**
+ * The gzip/deflate compression level (1-9) of responses sent to clients
+ * which support it. Zero disables the compression.
+ */
+public class ResponseCompressionLevel extends AbstractSetting<Long> {
+    private static final String SETTING_NAME = "responseCompressionLevel";
+    private static final long DEFAULT_LEVEL = 6;
+    private static final long MAX_LEVEL = 9;
+
+    private long value = DEFAULT_LEVEL;
+
+    public ResponseCompressionLevel() {
+        super(Long.class, SETTING_NAME);
+    }
+
+    @Override
+    public Long getValue() {
+        return value;
+    }
+
+    @Override
+    protected void apply(Long level) {
+        if (level < 0 || level > MAX_LEVEL) {
+            throw new IllegalArgumentException(String.format(
+                    "The value of %s must be in range 0..%s. %s is given", getName(), MAX_LEVEL, level));
+        }
+        this.value = level;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.model.settings;
+
+/**
+ * The minimum size of a response body in bytes to be compressed.
+ * Responses streamed to the client have no known size and are always compressed.
+ */
+public class ResponseCompressionThreshold extends AbstractSetting<Long> {
+    private static final String SETTING_NAME = "responseCompressionThreshold";
+    private static final long DEFAULT_THRESHOLD = 1024;
+
+    private long value = DEFAULT_THRESHOLD;
+
+    public ResponseCompressionThreshold() {
+        super(Long.class, SETTING_NAME);
+    }
+
+    @Override
+    public Long getValue() {
+        return value;
+    }
+
+    @Override
+    protected void apply(Long threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "The value of %s must not be negative. %s is given", getName(), threshold));
+        }
+        this.value = threshold;
+    }
+}
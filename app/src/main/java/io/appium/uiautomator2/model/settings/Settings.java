@@ -19,10 +19,18 @@ package io.appium.uiautomator2.model.settings;
 public enum Settings {
     ACTION_ACKNOWLEDGMENT_TIMEOUT(new ActionAcknowledgmentTimeout()),
     ALLOW_INVISIBLE_ELEMENTS(new AllowInvisibleElements()),
+    COMMAND_QUEUE_CAPACITY(new CommandQueueCapacity()),
     COMPRESSED_LAYOUT_HIERARCHY(new CompressedLayoutHierarchy()),
+    ELEMENT_CACHE_CAPACITY(new ElementCacheCapacity()),
+    ELEMENT_CACHE_TIMEOUT(new ElementCacheTimeout()),
     ELEMENT_RESPONSE_ATTRIBUTES(new ElementResponseAttributes()),
     ENABLE_NOTIFICATION_LISTENER(new EnableNotificationListener()),
     KEY_INJECTION_DELAY(new KeyInjectionDelay()),
+    LOG_LEVEL(new LogLevel()),
+    LOG_MESSAGE_MAX_LENGTH(new LogMessageMaxLength()),
+    REQUEST_TIMEOUT(new RequestTimeout()),
+    RESPONSE_COMPRESSION_LEVEL(new ResponseCompressionLevel()),
+    RESPONSE_COMPRESSION_THRESHOLD(new ResponseCompressionThreshold()),
     SCROLL_ACKNOWLEDGMENT_TIMEOUT(new ScrollAcknowledgmentTimeout()),
     SHOULD_USE_COMPACT_RESPONSES(new ShouldUseCompactResponses()),
     WAIT_FOR_IDLE_TIMEOUT(new WaitForIdleTimeout()),
@@ -8,7 +8,7 @@ public class AndroidServer {
     private final HttpServer webServer;
 
     public AndroidServer(int port) {
-        webServer = new HttpServer(port);
+        webServer = new HttpServer(port, ServerConfig.getAbstractSocketName());
         init();
         Logger.info("AndroidServer created on port " + port);
     }
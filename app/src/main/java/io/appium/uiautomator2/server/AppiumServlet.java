@@ -16,17 +16,29 @@
 
 package io.appium.uiautomator2.server;
 
+import android.support.annotation.Nullable;
+
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URLDecoder;
 import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
+import io.appium.uiautomator2.common.exceptions.CommandCancelledException;
+import io.appium.uiautomator2.common.exceptions.IdempotencyKeyReusedException;
 import io.appium.uiautomator2.handler.AcceptAlert;
 import io.appium.uiautomator2.handler.AppStrings;
+import io.appium.uiautomator2.handler.Batch;
 import io.appium.uiautomator2.handler.CaptureScreenshot;
 import io.appium.uiautomator2.handler.Clear;
 import io.appium.uiautomator2.handler.Click;
@@ -44,6 +56,9 @@ import io.appium.uiautomator2.handler.GetDevicePixelRatio;
 import io.appium.uiautomator2.handler.GetDeviceSize;
 import io.appium.uiautomator2.handler.GetElementAttribute;
 import io.appium.uiautomator2.handler.GetElementScreenshot;
+import io.appium.uiautomator2.handler.GetEventStream;
+import io.appium.uiautomator2.handler.GetFlightRecorder;
+import io.appium.uiautomator2.handler.GetMetrics;
 import io.appium.uiautomator2.handler.GetName;
 import io.appium.uiautomator2.handler.GetRect;
 import io.appium.uiautomator2.handler.GetRotation;
@@ -77,9 +92,22 @@ import io.appium.uiautomator2.handler.UpdateSettings;
 import io.appium.uiautomator2.handler.W3CActions;
 import io.appium.uiautomator2.handler.request.BaseRequestHandler;
 import io.appium.uiautomator2.http.AppiumResponse;
+import io.appium.uiautomator2.http.AsyncResponseValue;
+import io.appium.uiautomator2.http.EntityTagged;
 import io.appium.uiautomator2.http.IHttpRequest;
 import io.appium.uiautomator2.http.IHttpResponse;
 import io.appium.uiautomator2.http.IHttpServlet;
+import io.appium.uiautomator2.http.NotModified;
+import io.appium.uiautomator2.http.RawResponseValue;
+import io.appium.uiautomator2.model.Screenshot;
+import io.appium.uiautomator2.model.settings.RequestTimeout;
+import io.appium.uiautomator2.model.settings.Settings;
+import io.appium.uiautomator2.server.metrics.FlightRecorder;
+import io.appium.uiautomator2.server.metrics.MetricsRegistry;
+import io.appium.uiautomator2.utils.CancellationToken;
+import io.appium.uiautomator2.utils.Logger;
+import io.appium.uiautomator2.utils.ServerTiming;
+import io.netty.handler.codec.http.HttpHeaders;
 
 public class AppiumServlet implements IHttpServlet {
 
@@ -89,10 +117,35 @@ public class AppiumServlet implements IHttpServlet {
     public static final String ELEMENT_ID_NEXT_KEY = "elementId";
     public static final String COMMAND_NAME_KEY = "COMMAND_KEY";
     public static final String NAME_ID_KEY = "NAME_ID_KEY";
-    protected static ConcurrentMap<String, BaseRequestHandler> getHandler = new ConcurrentHashMap<>();
-    protected static ConcurrentMap<String, BaseRequestHandler> postHandler = new ConcurrentHashMap<>();
-    protected static ConcurrentMap<String, BaseRequestHandler> deleteHandler = new ConcurrentHashMap<>();
-    private ConcurrentMap<String, String[]> mapperUrlSectionsCache = new ConcurrentHashMap<>();
+    public static final String WINDOW_HANDLE_KEY = "WINDOW_HANDLE_KEY";
+    // the amount of milliseconds the client is going to wait for the response
+    public static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout";
+    private static final Map<String, String> PARAMETER_KEYS = new HashMap<>();
+    protected static RoutingTrie getHandler = new RoutingTrie();
+    protected static RoutingTrie postHandler = new RoutingTrie();
+    protected static RoutingTrie deleteHandler = new RoutingTrie();
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private final CommandExecutor commandExecutor = new CommandExecutor();
+    private final MetricsRegistry metricsRegistry = new MetricsRegistry();
+    private final IdempotencyCache idempotencyCache = new IdempotencyCache();
+    private final RequestCoalescer<PendingRequest> coalescer = new RequestCoalescer<>();
+    private final ExecutorService followerExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "CoalescedResponseWriter");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    static {
+        PARAMETER_KEYS.put("sessionId", SESSION_ID_KEY);
+        PARAMETER_KEYS.put("command", COMMAND_NAME_KEY);
+        PARAMETER_KEYS.put("id", ELEMENT_ID_KEY);
+        PARAMETER_KEYS.put("name", NAME_ID_KEY);
+        PARAMETER_KEYS.put("elementId", ELEMENT_ID_NEXT_KEY);
+        PARAMETER_KEYS.put("windowHandle", WINDOW_HANDLE_KEY);
+    }
 
 
     public AppiumServlet() {
@@ -142,10 +195,14 @@ public class AppiumServlet implements IHttpServlet {
         register(postHandler, new SetClipboard("/wd/hub/session/:sessionId/appium/device/set_clipboard"));
         register(postHandler, new AcceptAlert("/wd/hub/session/:sessionId/alert/accept"));
         register(postHandler, new DismissAlert("/wd/hub/session/:sessionId/alert/dismiss"));
+        register(postHandler, new Batch("/wd/hub/session/:sessionId/appium/batch", this));
     }
 
     private void registerGetHandler() {
         register(getHandler, new Status("/wd/hub/status"));
+        register(getHandler, new GetMetrics("/wd/hub/appium/metrics", this));
+        register(getHandler, new GetFlightRecorder("/wd/hub/appium/flight_recorder"));
+        register(getHandler, new GetEventStream("/wd/hub/appium/events"));
         register(getHandler, new GetSessionDetails("/wd/hub/session/:sessionId"));
         register(getHandler, new CaptureScreenshot("/wd/hub/session/:sessionId/screenshot"));
         register(getHandler, new GetScreenOrientation("/wd/hub/session/:sessionId/orientation"));
@@ -167,149 +224,427 @@ public class AppiumServlet implements IHttpServlet {
         register(getHandler, new GetAlertText("/wd/hub/session/:sessionId/alert/text"));
     }
 
-    protected void register(Map<String, BaseRequestHandler> registerOn, BaseRequestHandler handler) {
-        registerOn.put(handler.getMappedUri(), handler);
+    protected void register(RoutingTrie registerOn, BaseRequestHandler handler) {
+        registerOn.add(handler);
+        String method = registerOn == getHandler ? "GET" : registerOn == postHandler ? "POST" : "DELETE";
+        metricsRegistry.register(method, handler);
     }
 
-    protected BaseRequestHandler findMatcher(IHttpRequest request, Map<String, BaseRequestHandler> handler) {
-        String[] urlToMatchSections = getRequestUrlSections(request.uri());
-        for (Map.Entry<String, ? extends BaseRequestHandler> entry : handler.entrySet()) {
-            String[] mapperUrlSections = getMapperUrlSectionsCached(entry.getKey());
-            if (isFor(mapperUrlSections, urlToMatchSections)) {
-                return entry.getValue();
-            }
+    protected RoutingTrie.Match findRoute(IHttpRequest request) {
+        if ("GET".equals(request.method())) {
+            return getHandler.match(request.uri());
+        } else if ("POST".equals(request.method())) {
+            return postHandler.match(request.uri());
+        } else if ("DELETE".equals(request.method())) {
+            return deleteHandler.match(request.uri());
         }
         return null;
     }
 
-    private String[] getRequestUrlSections(String urlToMatch) {
-        if (urlToMatch == null) {
-            return null;
-        }
-        int qPos = urlToMatch.indexOf('?');
-        if (qPos != -1) {
-            urlToMatch = urlToMatch.substring(0, urlToMatch.indexOf("?"));
+    @Override
+    public void handleHttpRequest(IHttpRequest request, IHttpResponse response) {
+        RoutingTrie.Match route = findRoute(request);
+        if (route == null) {
+            handleRequest(request, response, null);
+            return;
         }
-        return urlToMatch.split("/");
+        addHandlerAttributesToRequest(request, route);
+        handleRequest(request, response, route.getHandler());
     }
 
-    private String[] getMapperUrlSectionsCached(String mapperUrl) {
-        String[] sections = mapperUrlSectionsCache.get(mapperUrl);
-        if (sections == null) {
-            sections = mapperUrl.split("/");
-            for (int i = 0; i < sections.length; i++) {
-                String section = sections[i];
-                // To work around a but in Selenium Grid 2.31.0.
-                int qPos = section.indexOf('?');
-                if (qPos != -1) {
-                    sections[i] = section.substring(0, qPos);
+    public void handleRequest(final IHttpRequest request, final IHttpResponse response,
+                              final BaseRequestHandler handler) {
+        if (handler == null) {
+            response.setStatus(HttpStatusCode.NOT_FOUND.getStatusCode()).end();
+            return;
+        }
+        final long startNanos = System.nanoTime();
+        metricsRegistry.requestStarted();
+        long timeoutMillis = getRequestTimeout(request);
+        if (timeoutMillis > 0) {
+            request.cancellationToken().setTimeout(startNanos, timeoutMillis);
+        }
+        final String coalescingKey = handler.isCoalescable() ? RequestCoalescer.keyOf(request) : null;
+        if (coalescingKey != null && coalescer.tryJoin(coalescingKey,
+                new PendingRequest(request, response, handler, startNanos))) {
+            Logger.debug(String.format("Waiting for the result of the identical request %s",
+                    coalescingKey));
+            response.startAsync();
+            return;
+        }
+        if (!handler.isUiCommand()) {
+            execute(request, response, handler, startNanos, coalescingKey);
+            return;
+        }
+
+        response.startAsync();
+        boolean isScheduled = commandExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                execute(request, response, handler, startNanos, coalescingKey);
+            }
+        });
+        if (!isScheduled) {
+            rejectAsBusy(request, response, handler, startNanos);
+            if (coalescingKey != null) {
+                for (PendingRequest follower : coalescer.complete(coalescingKey)) {
+                    rejectAsBusy(follower.request, follower.response, follower.handler,
+                            follower.startNanos);
                 }
             }
-            mapperUrlSectionsCache.put(mapperUrl, sections);
         }
-        return sections;
     }
 
-    protected boolean isFor(String[] mapperUrlSections, String[] urlToMatchSections) {
-        if (urlToMatchSections == null) {
-            return mapperUrlSections.length == 0;
-        }
-        if (mapperUrlSections.length != urlToMatchSections.length) {
-            return false;
-        }
-        for (int i = 0; i < mapperUrlSections.length; i++) {
-            if (!(mapperUrlSections[i].startsWith(":") || mapperUrlSections[i].equals(urlToMatchSections[i]))) {
-                return false;
+    private void rejectAsBusy(IHttpRequest request, IHttpResponse response,
+                              BaseRequestHandler handler, long startNanos) {
+        AppiumResponse result = new AppiumResponse((String) request.data().get(SESSION_ID_KEY),
+                WDStatus.UNKNOWN_ERROR, "The server is busy. Too many commands are waiting for execution");
+        response.setStatus(HttpStatusCode.SERVICE_UNAVAILABLE.getStatusCode())
+                .setHeader("Retry-After", RETRY_AFTER_SECONDS)
+                .setContentType("application/json")
+                .setContent(result.render())
+                .end();
+        recordRequest(request, response, handler, startNanos, result);
+    }
+
+    private void rejectReusedKey(IHttpRequest request, IHttpResponse response,
+                                 BaseRequestHandler handler, long startNanos, String message) {
+        AppiumResponse result = new AppiumResponse((String) request.data().get(SESSION_ID_KEY),
+                WDStatus.UNKNOWN_ERROR, message);
+        response.setStatus(HttpStatusCode.UNPROCESSABLE_ENTITY.getStatusCode())
+                .setContentType("application/json")
+                .setContent(result.render())
+                .end();
+        recordRequest(request, response, handler, startNanos, result);
+    }
+
+    private void execute(IHttpRequest request, IHttpResponse response, BaseRequestHandler handler,
+                         long startNanos, @Nullable String coalescingKey) {
+        ServerTiming timing = ServerTiming.start();
+        try {
+            long handleStartNanos = System.nanoTime();
+            timing.add("queue", handleStartNanos - startNanos);
+            // retries wait in the queue behind the original command,
+            // so its response is already stored when they are executed
+            String idempotencyKey = IdempotencyCache.keyOf(request);
+            String bodyHash = idempotencyKey == null ? null : IdempotencyCache.bodyHashOf(request);
+            AppiumResponse result;
+            try {
+                result = idempotencyKey == null ? null : idempotencyCache.get(idempotencyKey, bodyHash);
+            } catch (IdempotencyKeyReusedException e) {
+                rejectReusedKey(request, response, handler, startNanos, e.getMessage());
+                if (coalescingKey != null) {
+                    List<PendingRequest> followers = coalescer.complete(coalescingKey);
+                    if (!followers.isEmpty()) {
+                        resubmit(coalescingKey, followers);
+                    }
+                }
+                return;
+            }
+            if (result == null) {
+                result = invokeUnlessCancelled(request, handler);
+                if (idempotencyKey != null && result != null && !isCancelled(request, result)) {
+                    idempotencyCache.put(idempotencyKey, bodyHash, result);
+                }
+            } else {
+                Logger.info(String.format("Replaying the stored response of %s %s",
+                        request.method(), request.uri()));
+                response.setHeader(IdempotencyCache.REPLAYED_HEADER_NAME, "true");
+            }
+            ServerTiming.mark("handle", handleStartNanos);
+            List<PendingRequest> followers = coalescingKey == null
+                    ? Collections.<PendingRequest>emptyList()
+                    : coalescer.complete(coalescingKey);
+            // the followers report the phases they have shared with this request only
+            ServerTiming sharedTiming = timing.copy();
+            respond(request, response, handler, startNanos, result);
+            if (!followers.isEmpty() && isCancelled(request, result)) {
+                // the followers are still waiting for the result, so one of them takes over
+                resubmit(coalescingKey, followers);
+                return;
+            }
+            for (PendingRequest follower : followers) {
+                respondInBackground(follower, result, sharedTiming.copy());
             }
+        } finally {
+            ServerTiming.stop();
         }
-        return true;
     }
 
-    @Override
-    public void handleHttpRequest(IHttpRequest request, IHttpResponse response) {
-        BaseRequestHandler handler = null;
-        if ("GET".equals(request.method())) {
-            handler = findMatcher(request, getHandler);
-        } else if ("POST".equals(request.method())) {
-            handler = findMatcher(request, postHandler);
-        } else if ("DELETE".equals(request.method())) {
-            handler = findMatcher(request, deleteHandler);
+    /**
+     * Sends the shared result to a coalesced request outside of the command thread,
+     * so followers reading their responses slowly do not hold up the command queue
+     * or each other.
+     */
+    private void respondInBackground(final PendingRequest follower, final AppiumResponse result,
+                                     final ServerTiming timing) {
+        followerExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                ServerTiming.attach(timing);
+                try {
+                    respond(follower.request, follower.response, follower.handler,
+                            follower.startNanos, result);
+                } finally {
+                    ServerTiming.stop();
+                }
+            }
+        });
+    }
+
+    private void resubmit(String coalescingKey, List<PendingRequest> requests) {
+        PendingRequest leader = null;
+        for (PendingRequest pending : requests) {
+            if (!coalescer.tryJoin(coalescingKey, pending)) {
+                leader = pending;
+            }
+        }
+        if (leader != null) {
+            execute(leader.request, leader.response, leader.handler, leader.startNanos, coalescingKey);
         }
-        handleRequest(request, response, handler);
     }
 
-    public void handleRequest(IHttpRequest request, IHttpResponse response, BaseRequestHandler handler) {
-        if (handler == null) {
-            response.setStatus(HttpStatusCode.NOT_FOUND.getStatusCode()).end();
-            return;
+    private AppiumResponse invokeUnlessCancelled(IHttpRequest request, BaseRequestHandler handler) {
+        CancellationToken token = request.cancellationToken();
+        String cancellationReason = token.getCancellationReason();
+        if (cancellationReason != null) {
+            // nobody is waiting for the command anymore, so the device is not touched at all
+            Logger.info("Skipping the cancelled command: " + cancellationReason);
+            return new AppiumResponse((String) request.data().get(SESSION_ID_KEY),
+                    WDStatus.TIMEOUT, cancellationReason);
+        }
+        CancellationToken.attach(token);
+        try {
+            return invoke(request, handler);
+        } finally {
+            CancellationToken.detach();
         }
-        addHandlerAttributesToRequest(request, handler.getMappedUri());
-        AppiumResponse result = handler.handle(request);
-        handleResponse(request, response, result);
     }
 
-    protected void handleResponse(IHttpRequest request, IHttpResponse response, AppiumResponse result) {
-        if (result != null) {
-            String resultString = result.render();
-            response.setContentType("application/json");
-            response.setEncoding(Charset.forName("UTF-8"));
-            response.setContent(resultString);
+    /**
+     * Cancelled commands have not been completed, so their retries must be executed.
+     */
+    private static boolean isCancelled(IHttpRequest request, AppiumResponse result) {
+        return result.getStatus() == WDStatus.TIMEOUT.code() && request.cancellationToken().isCancelled();
+    }
+
+    /**
+     * @return the deadline given by the client or the default one if there is none
+     */
+    private static long getRequestTimeout(IHttpRequest request) {
+        String timeout = request.header(REQUEST_TIMEOUT_HEADER);
+        if (timeout != null) {
             try {
-                if (new JSONObject(resultString).getInt("status") == 0) {
-                    response.setStatus(HttpStatusCode.OK.getStatusCode());
-                } else {
-                    response.setStatus(HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode());
-                }
-            } catch (JSONException e) {
-                response.setStatus(HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode());
+                return Long.parseLong(timeout.trim());
+            } catch (NumberFormatException e) {
+                Logger.error(String.format("Ignoring the invalid %s header value '%s'",
+                        REQUEST_TIMEOUT_HEADER, timeout));
             }
         }
-        response.end();
+        return ((RequestTimeout) Settings.REQUEST_TIMEOUT.getSetting()).getValue();
     }
 
-    private void addHandlerAttributesToRequest(IHttpRequest request, String mappedUri) {
-        String sessionId = getParameter(mappedUri, request.uri(), ":sessionId");
-        if (sessionId != null) {
-            request.data().put(SESSION_ID_KEY, sessionId);
+    /**
+     * Sends the result to the client. The request is recorded even if sending fails,
+     * for example because the client has disconnected, so it does not stay in flight.
+     */
+    private void respond(IHttpRequest request, IHttpResponse response, BaseRequestHandler handler,
+                         long startNanos, AppiumResponse result) {
+        try {
+            handleResponse(request, response, result);
+        } finally {
+            recordRequest(request, response, handler, startNanos, result);
         }
+    }
 
-        String command = getParameter(mappedUri, request.uri(), ":command");
-        if (command != null) {
-            request.data().put(COMMAND_NAME_KEY, command);
+    private void recordRequest(IHttpRequest request, IHttpResponse response,
+                               BaseRequestHandler handler, long startNanos, AppiumResponse result) {
+        long requestBytes = 0;
+        String contentLength = request.header(HttpHeaders.Names.CONTENT_LENGTH);
+        if (contentLength != null) {
+            try {
+                requestBytes = Long.parseLong(contentLength);
+            } catch (NumberFormatException ignored) {
+            }
         }
+        int status = result == null ? WDStatus.SUCCESS.code() : result.getStatus();
+        metricsRegistry.requestFinished(handler, startNanos, status,
+                requestBytes, response.getContentLength());
+
+        // the body is not parsed only to be recorded, and it might have been released already
+        FlightRecorder.getInstance().record(request.method(), request.uri(),
+                (String) request.data().get(SESSION_ID_KEY), request.parsedPayload(), requestBytes,
+                status, response.getContentLength(), System.nanoTime() - startNanos,
+                ServerTiming.current());
+    }
 
-        String id = getParameter(mappedUri, request.uri(), ":id");
-        if (id != null) {
-            request.data().put(ELEMENT_ID_KEY, URLDecoder.decode(id));
+    private AppiumResponse invoke(IHttpRequest request, BaseRequestHandler handler) {
+        try {
+            return handler.handle(request);
+        } catch (CommandCancelledException e) {
+            Logger.info("The command has been cancelled: " + e.getMessage());
+            return new AppiumResponse((String) request.data().get(SESSION_ID_KEY), WDStatus.TIMEOUT, e);
+        } catch (Throwable e) {
+            Logger.error("Unexpected error while handling the request", e);
+            return AppiumResponse.forCatchAllError((String) request.data().get(SESSION_ID_KEY), e);
         }
-        String name = getParameter(mappedUri, request.uri(), ":name");
-        if (name != null) {
-            request.data().put(NAME_ID_KEY, name);
+    }
+
+    /**
+     * Executes the request in the current thread. The result is returned to the caller
+     * instead of being sent to the client. The token of the request is bound to the thread
+     * while it is executed.
+     *
+     * @param request the request to execute
+     * @return the result of the matching handler or UNKNOWN_COMMAND error if there is none
+     */
+    public AppiumResponse dispatch(IHttpRequest request) {
+        RoutingTrie.Match route = findRoute(request);
+        if (route == null) {
+            return new AppiumResponse((String) request.data().get(SESSION_ID_KEY), WDStatus.UNKNOWN_COMMAND);
         }
-        String elementId = getParameter(mappedUri, request.uri(), ":elementId");
-        if (elementId != null) {
-            request.data().put(ELEMENT_ID_NEXT_KEY, elementId);
+        addHandlerAttributesToRequest(request, route);
+        CancellationToken previousToken = CancellationToken.current();
+        CancellationToken.attach(request.cancellationToken());
+        try {
+            return invoke(request, route.getHandler());
+        } finally {
+            if (previousToken == null) {
+                CancellationToken.detach();
+            } else {
+                CancellationToken.attach(previousToken);
+            }
         }
+    }
+
+    public CommandExecutor getCommandExecutor() {
+        return commandExecutor;
+    }
 
-        //request.data().put(DRIVER_KEY, driver);
+    public MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
     }
 
+    protected void handleResponse(IHttpRequest request, IHttpResponse response, AppiumResponse result) {
+        if (result != null && result.getValue() instanceof AsyncResponseValue) {
+            // the request is finished once the stream has been started,
+            // but the stream itself stays in flight until it ends
+            metricsRegistry.streamStarted();
+            response.addEndListener(new Runnable() {
+                @Override
+                public void run() {
+                    metricsRegistry.streamEnded();
+                }
+            });
+            ((AsyncResponseValue) result.getValue()).start(response);
+            return;
+        }
+        long renderStartNanos = System.nanoTime();
+        if (result != null && result.getValue() instanceof EntityTagged) {
+            String entityTag = ((EntityTagged) result.getValue()).getEntityTag();
+            if (entityTag != null) {
+                response.setHeader(HttpHeaders.Names.ETAG, entityTag);
+            }
+        }
+        if (result != null && result.getValue() instanceof NotModified) {
+            response.setStatus(HttpStatusCode.NOT_MODIFIED.getStatusCode());
+        } else if (result != null && result.getValue() instanceof RawResponseValue) {
+            RawResponseValue value = (RawResponseValue) result.getValue();
+            response.setStatus(HttpStatusCode.OK.getStatusCode())
+                    .setContentType(value.getContentType());
+            Writer writer = response.getContentWriter();
+            try {
+                value.writeTo(writer);
+                writer.close();
+            } catch (IOException e) {
+                Logger.error("Unable to render the response", e);
+            }
+        } else if (isRawScreenshotRequested(request, result)) {
+            Screenshot screenshot = (Screenshot) result.getValue();
+            Logger.info(String.format("AppiumResponse (%s): %s bytes",
+                    screenshot.getMimeType(), screenshot.getData().length));
+            response.setStatus(HttpStatusCode.OK.getStatusCode())
+                    .setContentType(screenshot.getMimeType())
+                    .setContent(screenshot.getData());
+        } else if (result != null) {
+            response.setContentType("application/json");
+            response.setEncoding(Charset.forName("UTF-8"));
+            response.setStatus(result.getStatus() == WDStatus.SUCCESS.code()
+                    ? HttpStatusCode.OK.getStatusCode()
+                    : HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode());
+            // large values are sent while they are being rendered,
+            // so their headers cannot include the rendering time
+            if (result.isStreamable()) {
+                setServerTimingHeader(response);
+            }
+            Writer writer = result.isStreamable()
+                    ? new OutputStreamWriter(response.startStreaming(), Charset.forName("UTF-8"))
+                    : response.getContentWriter();
+            try {
+                result.render(writer);
+                writer.close();
+            } catch (IOException e) {
+                // the status has been already sent if the response is streamed,
+                // so the client only gets a truncated body
+                Logger.error("Unable to render the response", e);
+            }
+        }
+        ServerTiming.mark("render", renderStartNanos);
+        if (!response.isStreaming()) {
+            setServerTimingHeader(response);
+        }
+        response.end();
+    }
 
-    protected String getParameter(String configuredUri, String actualUri, String param) {
-        return getParameter(configuredUri, actualUri, param, true);
+    private static void setServerTimingHeader(IHttpResponse response) {
+        ServerTiming timing = ServerTiming.current();
+        if (timing != null && !timing.isEmpty()) {
+            response.setHeader(ServerTiming.HEADER_NAME, timing.toHeaderValue());
+        }
     }
 
-    protected String getParameter(String configuredUri, String actualUri, String param, boolean sectionLengthValidation) {
-        String[] configuredSections = configuredUri.split("/");
-        String[] currentSections = actualUri.split("/");
-        if (sectionLengthValidation && configuredSections.length != currentSections.length) {
-            return null;
+    /**
+     * Screenshots are sent as raw images without the JSON envelope if the client accepts
+     * their image type explicitly.
+     */
+    private static boolean isRawScreenshotRequested(IHttpRequest request, AppiumResponse result) {
+        if (result == null || result.getStatus() != WDStatus.SUCCESS.code()
+                || !(result.getValue() instanceof Screenshot)) {
+            return false;
         }
-        for (int i = 0; i < currentSections.length; i++) {
-            if (configuredSections[i].contains(param)) {
-                return currentSections[i];
+        String mimeType = Screenshot.negotiateMimeType(request.header(HttpHeaders.Names.ACCEPT));
+        return ((Screenshot) result.getValue()).getMimeType().equals(mimeType);
+    }
+
+    private void addHandlerAttributesToRequest(IHttpRequest request, RoutingTrie.Match route) {
+        for (int i = 0; i < route.getParametersCount(); i++) {
+            String key = PARAMETER_KEYS.get(route.getParameterName(i));
+            String value = route.getParameterValue(i);
+            if (key == null || value == null) {
+                continue;
             }
+            if (ELEMENT_ID_KEY.equals(key)) {
+                value = URLDecoder.decode(value);
+            }
+            request.data().put(key, value);
+        }
+    }
+
+    /**
+     * Request waiting for the result of an identical one.
+     */
+    private static class PendingRequest {
+        private final IHttpRequest request;
+        private final IHttpResponse response;
+        private final BaseRequestHandler handler;
+        private final long startNanos;
+
+        PendingRequest(IHttpRequest request, IHttpResponse response, BaseRequestHandler handler,
+                       long startNanos) {
+            this.request = request;
+            this.response = response;
+            this.handler = handler;
+            this.startNanos = startNanos;
         }
-        return null;
     }
 }
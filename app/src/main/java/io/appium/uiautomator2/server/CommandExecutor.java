@@ -0,0 +1,128 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.server;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.appium.uiautomator2.model.settings.CommandQueueCapacity;
+import io.appium.uiautomator2.model.settings.Settings;
+import io.appium.uiautomator2.utils.Logger;
+
+/**
+ * Executes UI commands one by one on a dedicated thread, so concurrent clients
+ * never drive UiAutomation simultaneously and network threads are never blocked
+ * by slow commands. The amount of waiting commands is limited by the
+ * {@link CommandQueueCapacity} setting.
+ */
+public class CommandExecutor {
+    private static final long IDLE_THREAD_TIMEOUT_SECONDS = 60;
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong executedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong totalWaitTimeNanos = new AtomicLong();
+    private final AtomicLong maxWaitTimeNanos = new AtomicLong();
+
+    public CommandExecutor() {
+        executor = new ThreadPoolExecutor(1, 1, IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "UiCommandExecutor");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Schedules the command for execution
+     *
+     * @param command the command to execute
+     * @return false if the command has been rejected because the queue is full
+     */
+    public boolean execute(final Runnable command) {
+        final long capacity = ((CommandQueueCapacity) Settings.COMMAND_QUEUE_CAPACITY.getSetting())
+                .getValue();
+        if (queueDepth.incrementAndGet() > capacity) {
+            queueDepth.decrementAndGet();
+            rejectedCount.incrementAndGet();
+            Logger.error(String.format("The command queue is full (%s commands are waiting). " +
+                    "Rejecting the command", capacity));
+            return false;
+        }
+        final long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    queueDepth.decrementAndGet();
+                    recordWaitTime(System.nanoTime() - enqueuedAt);
+                    command.run();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queueDepth.decrementAndGet();
+            rejectedCount.incrementAndGet();
+            Logger.error("Unable to schedule the command", e);
+            return false;
+        }
+        return true;
+    }
+
+    private void recordWaitTime(long waitTimeNanos) {
+        executedCount.incrementAndGet();
+        totalWaitTimeNanos.addAndGet(waitTimeNanos);
+        long max = maxWaitTimeNanos.get();
+        while (waitTimeNanos > max && !maxWaitTimeNanos.compareAndSet(max, waitTimeNanos)) {
+            max = maxWaitTimeNanos.get();
+        }
+        Logger.debug(String.format("The command has been waiting %sms in the queue",
+                TimeUnit.NANOSECONDS.toMillis(waitTimeNanos)));
+    }
+
+    /**
+     * @return the amount of commands waiting for execution
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getExecutedCount() {
+        return executedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getTotalWaitTimeNanos() {
+        return totalWaitTimeNanos.get();
+    }
+
+    public long getMaxWaitTimeNanos() {
+        return maxWaitTimeNanos.get();
+    }
+}
@@ -21,6 +21,7 @@ public enum HttpStatusCode {
     NOT_ACCEPTABLE(406, "Not Acceptable"),
     PROXY_AUTHENTICATION_REQUIRED(407, "Proxy Authentication Required"),
     REQUEST_TIMEOUT(408, "Request Timeout"),
+    UNPROCESSABLE_ENTITY(422, "Unprocessable Entity"),
     INTERNAL_SERVER_ERROR(500, "Internal Server Error"),
     NOT_IMPLEMENTED(501, "Not Implemented"),
     BAD_GATEWAY(502, "Bad Gateway"),
@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appium.uiautomator2.server;
+
+import android.support.annotation.Nullable;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.appium.uiautomator2.common.exceptions.IdempotencyKeyReusedException;
+import io.appium.uiautomator2.http.AppiumResponse;
+import io.appium.uiautomator2.http.IHttpRequest;
+
+/**
+ * Remembers the responses of commands sent with the Idempotency-Key header, so a client
+ * retrying such a command after a connection failure gets the stored response instead of
+ * performing the action on the device once more. A key reused with another payload is an error
+ * of the client and is never answered with the stored response. Only the most recently used
+ * responses are kept and they expire after a while.
+ */
+public class IdempotencyCache {
+    public static final String HEADER_NAME = "Idempotency-Key";
+    // tells the client that the response is a stored one
+    public static final String REPLAYED_HEADER_NAME = "Idempotent-Replayed";
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+
+    public IdempotencyCache() {
+        this(DEFAULT_CAPACITY, DEFAULT_TTL_MILLIS);
+    }
+
+    @SuppressWarnings("serial")
+    public IdempotencyCache(final int capacity, long ttlMillis) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Keys are only honoured for commands changing the device state. The same key
+     * sent to different endpoints identifies different commands.
+     *
+     * @return the cache key of the request or null if it should not be cached
+     */
+    @Nullable
+    public static String keyOf(IHttpRequest request) {
+        if ("GET".equals(request.method())) {
+            return null;
+        }
+        String key = request.header(HEADER_NAME);
+        if (key == null || key.trim().isEmpty()) {
+            return null;
+        }
+        return request.method() + " " + request.uri() + " " + key.trim();
+    }
+
+    /**
+     * @return the SHA-256 digest of the request body, which is stored along with the response
+     */
+    public static String bodyHashOf(IHttpRequest request) {
+        String body = request.body();
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256")
+                    .digest((body == null ? "" : body).getBytes(Charset.forName("UTF-8")));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder result = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            result.append(Character.forDigit((b >> 4) & 0xf, 16))
+                    .append(Character.forDigit(b & 0xf, 16));
+        }
+        return result.toString();
+    }
+
+    /**
+     * @param bodyHash the hash of the body of the retried request
+     * @return the stored response or null if there is none or it has expired
+     * @throws IdempotencyKeyReusedException if the response has been stored for a request with another body
+     */
+    @Nullable
+    public synchronized AppiumResponse get(String key, String bodyHash) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.storedAtNanos >= ttlNanos) {
+            entries.remove(key);
+            return null;
+        }
+        if (!entry.bodyHash.equals(bodyHash)) {
+            throw new IdempotencyKeyReusedException(String.format(
+                    "The %s '%s' has been already used for a request with another payload",
+                    HEADER_NAME, key));
+        }
+        return entry.response;
+    }
+
+    public synchronized void put(String key, String bodyHash, AppiumResponse response) {
+        entries.put(key, new Entry(response, bodyHash, System.nanoTime()));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static class Entry {
+        private final AppiumResponse response;
+        private final String bodyHash;
+        private final long storedAtNanos;
+
+        Entry(AppiumResponse response, String bodyHash, long storedAtNanos) {
+            this.response = response;
+            this.bodyHash = bodyHash;
+            this.storedAtNanos = storedAtNanos;
+        }
+    }
+}
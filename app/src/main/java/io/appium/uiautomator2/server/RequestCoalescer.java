@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appium.uiautomator2.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.appium.uiautomator2.http.IHttpRequest;
+import io.netty.handler.codec.http.HttpHeaders;
+
+/**
+ * Lets identical read-only requests share a single execution. A request, which arrives while
+ * an identical one is waiting for execution or is being executed, joins it and gets its result
+ * instead of repeating the work on the device.
+ *
+ * @param <T> the type of the joined requests
+ */
+public class RequestCoalescer<T> {
+    private final Map<String, List<T>> flights = new HashMap<>();
+
+    /**
+     * Requests are identical if they have the same method, URI (including the session id),
+     * accepted content types and cached versions.
+     */
+    public static String keyOf(IHttpRequest request) {
+        return request.method() + " " + request.uri() + " " + request.header(HttpHeaders.Names.ACCEPT)
+                + " " + request.header(HttpHeaders.Names.IF_NONE_MATCH);
+    }
+
+    /**
+     * Joins the identical request in flight if there is one. Otherwise the caller becomes
+     * the leader of a new flight and must execute the request and call {@link #complete(String)}.
+     *
+     * @return true if the request has joined the flight
+     */
+    public synchronized boolean tryJoin(String key, T request) {
+        List<T> followers = flights.get(key);
+        if (followers == null) {
+            flights.put(key, new ArrayList<T>());
+            return false;
+        }
+        followers.add(request);
+        return true;
+    }
+
+    /**
+     * Ends the flight. Requests arriving afterwards start a new one.
+     *
+     * @return the requests which have joined the flight and wait for its result
+     */
+    public synchronized List<T> complete(String key) {
+        List<T> followers = flights.remove(key);
+        return followers == null ? Collections.<T>emptyList() : followers;
+    }
+}
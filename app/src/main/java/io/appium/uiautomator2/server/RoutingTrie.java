@@ -0,0 +1,189 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.server;
+
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.appium.uiautomator2.handler.request.BaseRequestHandler;
+
+/**
+ * Routing trie keyed by path segment. Mapped URIs are compiled once at registration time,
+ * so the cost of a lookup only depends on the depth of the requested path and not on the
+ * amount of registered handlers.
+ * <p>
+ * Segments starting with ':' are path parameters. Static segments take precedence over
+ * parameters on the same level.
+ */
+public class RoutingTrie {
+    private static final char SEPARATOR = '/';
+    private static final char PARAMETER_PREFIX = ':';
+
+    private final Node root = new Node();
+    private int maxParametersCount;
+
+    public synchronized void add(BaseRequestHandler handler) {
+        final String mappedUri = handler.getMappedUri();
+        final List<String> names = new ArrayList<>();
+        Node node = root;
+        final int end = getPathEnd(mappedUri);
+        int from = 0;
+        while (true) {
+            int segmentEnd = getSegmentEnd(mappedUri, from, end);
+            if (segmentEnd > from && mappedUri.charAt(from) == PARAMETER_PREFIX) {
+                names.add(mappedUri.substring(from + 1, segmentEnd));
+                if (node.parameterChild == null) {
+                    node.parameterChild = new Node();
+                }
+                node = node.parameterChild;
+            } else {
+                String segment = mappedUri.substring(from, segmentEnd);
+                Node child = node.staticChildren.get(segment);
+                if (child == null) {
+                    child = new Node();
+                    node.staticChildren.put(segment, child);
+                }
+                node = child;
+            }
+            if (segmentEnd >= end) {
+                break;
+            }
+            from = segmentEnd + 1;
+        }
+        node.handler = handler;
+        node.parameterNames = names.toArray(new String[names.size()]);
+        maxParametersCount = Math.max(maxParametersCount, names.size());
+    }
+
+    /**
+     * Finds the handler mapped to the given request URI
+     *
+     * @param uri the request URI. The query string, if present, is ignored
+     * @return the match or null if no handler is mapped to the given URI
+     */
+    @Nullable
+    public Match match(@Nullable String uri) {
+        if (uri == null) {
+            return null;
+        }
+        final String[] values = new String[maxParametersCount];
+        final Node node = find(root, uri, 0, getPathEnd(uri), values, 0);
+        return node == null ? null : new Match(node.handler, node.parameterNames, values);
+    }
+
+    @Nullable
+    private static Node find(Node node, String uri, int from, int end, String[] values,
+                             int parameterIndex) {
+        final int segmentEnd = getSegmentEnd(uri, from, end);
+        final boolean isLastSegment = segmentEnd >= end;
+
+        final Node staticChild = node.staticChildren.get(uri.substring(from, segmentEnd));
+        if (staticChild != null) {
+            Node result = isLastSegment
+                    ? staticChild.getTerminal()
+                    : find(staticChild, uri, segmentEnd + 1, end, values, parameterIndex);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        final Node parameterChild = node.parameterChild;
+        if (parameterChild != null && parameterIndex < values.length) {
+            values[parameterIndex] = uri.substring(from, segmentEnd);
+            return isLastSegment
+                    ? parameterChild.getTerminal()
+                    : find(parameterChild, uri, segmentEnd + 1, end, values, parameterIndex + 1);
+        }
+        return null;
+    }
+
+    /**
+     * @return the end of the path part of the uri without the query string and trailing separators
+     */
+    private static int getPathEnd(String uri) {
+        int end = uri.indexOf('?');
+        if (end == -1) {
+            end = uri.length();
+        }
+        while (end > 1 && uri.charAt(end - 1) == SEPARATOR) {
+            end--;
+        }
+        return end;
+    }
+
+    private static int getSegmentEnd(String uri, int from, int end) {
+        final int separatorIndex = uri.indexOf(SEPARATOR, from);
+        return separatorIndex == -1 || separatorIndex > end ? end : separatorIndex;
+    }
+
+    private static class Node {
+        private final Map<String, Node> staticChildren = new HashMap<>();
+        private Node parameterChild;
+        private BaseRequestHandler handler;
+        private String[] parameterNames;
+
+        @Nullable
+        private Node getTerminal() {
+            return handler == null ? null : this;
+        }
+    }
+
+    public static class Match {
+        private final BaseRequestHandler handler;
+        private final String[] parameterNames;
+        private final String[] parameterValues;
+
+        private Match(BaseRequestHandler handler, String[] parameterNames, String[] parameterValues) {
+            this.handler = handler;
+            this.parameterNames = parameterNames;
+            this.parameterValues = parameterValues;
+        }
+
+        public BaseRequestHandler getHandler() {
+            return handler;
+        }
+
+        public int getParametersCount() {
+            return parameterNames.length;
+        }
+
+        /**
+         * @return the parameter name without the leading ':'
+         */
+        public String getParameterName(int index) {
+            return parameterNames[index];
+        }
+
+        public String getParameterValue(int index) {
+            return parameterValues[index];
+        }
+
+        @Nullable
+        public String getParameter(String name) {
+            for (int i = 0; i < parameterNames.length; i++) {
+                if (parameterNames[i].equals(name)) {
+                    return parameterValues[i];
+                }
+            }
+            return null;
+        }
+    }
+}
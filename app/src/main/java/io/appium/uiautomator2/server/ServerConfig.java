@@ -3,8 +3,41 @@ package io.appium.uiautomator2.server;
 
 public class ServerConfig {
     private final static int PORT = 6790;
+    /**
+     * Idle connections are closed after this amount of seconds
+     */
+    private final static int KEEP_ALIVE_IDLE_TIMEOUT = 60;
+    /**
+     * A persistent connection is closed after serving this amount of requests
+     */
+    private final static int MAX_REQUESTS_PER_CONNECTION = 1000;
+    /**
+     * HTTP connections to this path are upgraded to WebSocket command channels
+     */
+    private final static String WEBSOCKET_PATH = "/wd/hub/ws";
+    /**
+     * The server also accepts connections on this abstract namespace socket
+     * (adb forward tcp:PORT localabstract:NAME)
+     */
+    private final static String ABSTRACT_SOCKET_NAME = "uiautomator2-server";
 
     public static int getServerPort() {
         return PORT;
     }
+
+    public static int getKeepAliveIdleTimeout() {
+        return KEEP_ALIVE_IDLE_TIMEOUT;
+    }
+
+    public static int getMaxRequestsPerConnection() {
+        return MAX_REQUESTS_PER_CONNECTION;
+    }
+
+    public static String getWebSocketPath() {
+        return WEBSOCKET_PATH;
+    }
+
+    public static String getAbstractSocketName() {
+        return ABSTRACT_SOCKET_NAME;
+    }
 }
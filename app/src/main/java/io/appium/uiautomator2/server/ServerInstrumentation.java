@@ -7,10 +7,13 @@ import android.os.Looper;
 import android.os.PowerManager;
 import android.os.RemoteException;
 
+import java.io.File;
+
 import io.appium.uiautomator2.common.exceptions.SessionRemovedException;
 import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
 import io.appium.uiautomator2.model.settings.Settings;
 import io.appium.uiautomator2.model.settings.ShutdownOnPowerDisconnect;
+import io.appium.uiautomator2.server.metrics.FlightRecorder;
 import io.appium.uiautomator2.utils.Logger;
 
 import static android.content.Intent.ACTION_POWER_DISCONNECTED;
@@ -83,6 +86,14 @@ public class ServerInstrumentation {
             stopServer();
         }
 
+        // the external files directory can be pulled with adb without root permissions
+        File dumpDirectory = context.getExternalFilesDir(null);
+        FlightRecorder.getInstance().setDumpDirectory(dumpDirectory == null
+                ? context.getFilesDir()
+                : dumpDirectory);
+        Logger.flushOnCrash();
+        FlightRecorder.getInstance().dumpOnCrash();
+
         serverThread = new HttpdThread(this.serverPort);
         serverThread.start();
         //client to wait for io.appium.uiautomator2.server to up
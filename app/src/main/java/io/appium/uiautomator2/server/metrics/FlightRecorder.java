@@ -0,0 +1,216 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.server.metrics;
+
+import android.support.annotation.Nullable;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.appium.uiautomator2.utils.Logger;
+import io.appium.uiautomator2.utils.ServerTiming;
+
+/**
+ * Keeps the last commands handled by the server, so they can be inspected after a failure.
+ * <p>
+ * Records are preallocated and overwritten in a ring. Recording only stores references
+ * to the objects created while handling the request anyway and everything is formatted
+ * when the recorder is dumped. Only small payloads are kept, so the recorder never holds
+ * on to large request bodies.
+ */
+public class FlightRecorder {
+    private static final int DEFAULT_CAPACITY = 128;
+    private static final int MAX_PAYLOAD_LENGTH = 1000;
+    // every dump replaces the previous one, so repeated dumps do not fill up the storage
+    private static final String DUMP_FILE_NAME = "flight-recorder.json";
+    private static final FlightRecorder INSTANCE = new FlightRecorder(DEFAULT_CAPACITY);
+
+    private final Record[] records;
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile File dumpDirectory;
+
+    private static class Record {
+        long sequenceNumber = -1;
+        long timestampMillis;
+        String method;
+        String uri;
+        String sessionId;
+        JSONObject payload;
+        long requestBytes;
+        int status;
+        long responseBytes;
+        long durationNanos;
+        ServerTiming timing;
+    }
+
+    public FlightRecorder(int capacity) {
+        records = new Record[capacity];
+        for (int i = 0; i < capacity; i++) {
+            records[i] = new Record();
+        }
+    }
+
+    public static FlightRecorder getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param payload      the parsed request payload. It is only kept if the request size is known
+     *                     and small
+     * @param requestBytes the size of the request body or 0 if it is unknown
+     */
+    public void record(String method, String uri, @Nullable String sessionId,
+                       @Nullable JSONObject payload, long requestBytes, int status,
+                       long responseBytes, long durationNanos, @Nullable ServerTiming timing) {
+        long sequenceNumber = sequence.getAndIncrement();
+        Record record = records[(int) (sequenceNumber % records.length)];
+        synchronized (record) {
+            record.sequenceNumber = sequenceNumber;
+            record.timestampMillis = System.currentTimeMillis();
+            record.method = method;
+            record.uri = uri;
+            record.sessionId = sessionId;
+            record.payload = requestBytes > 0 && requestBytes <= MAX_PAYLOAD_LENGTH ? payload : null;
+            record.requestBytes = requestBytes;
+            record.status = status;
+            record.responseBytes = responseBytes;
+            record.durationNanos = durationNanos;
+            record.timing = timing;
+        }
+    }
+
+    /**
+     * @return the recorded commands from the oldest to the most recent one
+     */
+    public JSONArray dump() throws JSONException {
+        JSONArray result = new JSONArray();
+        long last = sequence.get();
+        for (long i = Math.max(0, last - records.length); i < last; i++) {
+            Record record = records[(int) (i % records.length)];
+            synchronized (record) {
+                // the record might have been overwritten by a newer one in the meantime
+                if (record.sequenceNumber != i) {
+                    continue;
+                }
+                result.put(toJson(record));
+            }
+        }
+        return result;
+    }
+
+    private static JSONObject toJson(Record record) throws JSONException {
+        JSONObject result = new JSONObject();
+        result.put("timestamp", record.timestampMillis);
+        result.put("method", record.method);
+        result.put("uri", record.uri);
+        result.put("sessionId", record.sessionId == null ? JSONObject.NULL : record.sessionId);
+        String payload = record.payload == null ? null : record.payload.toString();
+        if (payload != null && payload.length() > MAX_PAYLOAD_LENGTH) {
+            payload = payload.substring(0, MAX_PAYLOAD_LENGTH) + "...";
+        }
+        result.put("payload", payload == null ? JSONObject.NULL : payload);
+        result.put("requestBytes", record.requestBytes);
+        result.put("status", record.status);
+        result.put("responseBytes", record.responseBytes);
+        result.put("durationMs", record.durationNanos / 1e6);
+        result.put("phases", record.timing == null ? JSONObject.NULL : record.timing.toHeaderValue());
+        return result;
+    }
+
+    /**
+     * Sets the directory {@link #dumpToFile()} writes to.
+     */
+    public void setDumpDirectory(@Nullable File directory) {
+        this.dumpDirectory = directory;
+    }
+
+    /**
+     * Writes the recorded commands to the dump directory. The previous dump is replaced.
+     *
+     * @return the written file or null if there is no dump directory or the file cannot be written
+     */
+    @Nullable
+    public File dumpToFile() {
+        File directory = dumpDirectory;
+        if (directory == null) {
+            return null;
+        }
+        File file = new File(directory, DUMP_FILE_NAME);
+        // the previous dump stays intact if the new one cannot be written
+        File temporaryFile = new File(directory, DUMP_FILE_NAME + ".tmp");
+        Writer writer = null;
+        try {
+            writer = new OutputStreamWriter(new FileOutputStream(temporaryFile), "UTF-8");
+            writer.write(dump().toString(2));
+        } catch (IOException | JSONException e) {
+            Logger.error("Unable to write the flight recorder dump", e);
+            return null;
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        if (!temporaryFile.renameTo(file)) {
+            Logger.error("Unable to replace the flight recorder dump ", file.getAbsolutePath());
+            return null;
+        }
+        Logger.info("The flight recorder has been dumped to ", file.getAbsolutePath());
+        return file;
+    }
+
+    /**
+     * Dumps the recorder to a file if the server crashes. The previous default handler
+     * is still invoked afterwards.
+     */
+    public void dumpOnCrash() {
+        final Thread.UncaughtExceptionHandler previousHandler =
+                Thread.getDefaultUncaughtExceptionHandler();
+        if (previousHandler instanceof CrashDumper) {
+            return;
+        }
+        Thread.setDefaultUncaughtExceptionHandler(new CrashDumper(previousHandler));
+    }
+
+    private class CrashDumper implements Thread.UncaughtExceptionHandler {
+        private final Thread.UncaughtExceptionHandler previousHandler;
+
+        CrashDumper(Thread.UncaughtExceptionHandler previousHandler) {
+            this.previousHandler = previousHandler;
+        }
+
+        @Override
+        public void uncaughtException(Thread thread, Throwable throwable) {
+            try {
+                dumpToFile();
+            } finally {
+                if (previousHandler != null) {
+                    previousHandler.uncaughtException(thread, throwable);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.server.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of durations with fixed exponential buckets from 250 microseconds to about a minute.
+ * Recording only increments atomic counters, so it neither locks nor allocates.
+ * Percentiles are estimated from the buckets when they are requested.
+ */
+public class LatencyHistogram {
+    private static final long[] UPPER_BOUNDS_NANOS = new long[19];
+
+    static {
+        long bound = TimeUnit.MICROSECONDS.toNanos(250);
+        for (int i = 0; i < UPPER_BOUNDS_NANOS.length; i++) {
+            UPPER_BOUNDS_NANOS[i] = bound;
+            bound *= 2;
+        }
+    }
+
+    // the last bucket counts durations above the highest bound
+    private final AtomicLongArray buckets = new AtomicLongArray(UPPER_BOUNDS_NANOS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumNanos = new AtomicLong();
+
+    public void record(long durationNanos) {
+        buckets.incrementAndGet(bucketIndex(durationNanos));
+        count.incrementAndGet();
+        sumNanos.addAndGet(durationNanos);
+    }
+
+    private static int bucketIndex(long durationNanos) {
+        int low = 0;
+        int high = UPPER_BOUNDS_NANOS.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (UPPER_BOUNDS_NANOS[middle] < durationNanos) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public static int getBucketsCount() {
+        return UPPER_BOUNDS_NANOS.length + 1;
+    }
+
+    /**
+     * @return the inclusive upper bound of the bucket or {@link Long#MAX_VALUE} for the last one
+     */
+    public static long getUpperBoundNanos(int bucket) {
+        return bucket < UPPER_BOUNDS_NANOS.length ? UPPER_BOUNDS_NANOS[bucket] : Long.MAX_VALUE;
+    }
+
+    public long getBucketCount(int bucket) {
+        return buckets.get(bucket);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getSumNanos() {
+        return sumNanos.get();
+    }
+
+    /**
+     * Estimates the given percentile by linear interpolation inside the bucket it falls into.
+     * Durations above the highest bound are reported as the highest bound.
+     *
+     * @param quantile the percentile as a fraction between 0 and 1
+     * @return the estimated duration or 0 if nothing has been recorded yet
+     */
+    public long getPercentileNanos(double quantile) {
+        long total = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            total += buckets.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < UPPER_BOUNDS_NANOS.length; i++) {
+            long inBucket = buckets.get(i);
+            if (seen + inBucket >= rank) {
+                long lowerBound = i == 0 ? 0 : UPPER_BOUNDS_NANOS[i - 1];
+                double fraction = (double) (rank - seen) / inBucket;
+                return lowerBound + (long) (fraction * (UPPER_BOUNDS_NANOS[i] - lowerBound));
+            }
+            seen += inBucket;
+        }
+        return UPPER_BOUNDS_NANOS[UPPER_BOUNDS_NANOS.length - 1];
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.server.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.appium.uiautomator2.handler.request.BaseRequestHandler;
+
+/**
+ * Collects request metrics per route. Routes are registered together with their handlers,
+ * so recording a request only looks up the existing counters and increments them.
+ */
+public class MetricsRegistry {
+    private final Map<BaseRequestHandler, RouteMetrics> routes = new ConcurrentHashMap<>();
+    private final List<RouteMetrics> orderedRoutes =
+            Collections.synchronizedList(new ArrayList<RouteMetrics>());
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public void register(String method, BaseRequestHandler handler) {
+        RouteMetrics metrics = new RouteMetrics(method, handler.getMappedUri());
+        if (routes.put(handler, metrics) == null) {
+            orderedRoutes.add(metrics);
+        }
+    }
+
+    /**
+     * Must be paired with {@link #requestFinished(BaseRequestHandler, long, int, long, long)}.
+     */
+    public void requestStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * @param handler        the handler, which has been registered before
+     * @param startNanos     {@link System#nanoTime()} at the moment the request has been received
+     * @param status         the resulting WebDriver status code
+     * @param requestBytes   the size of the request body
+     * @param responseBytes  the size of the response body
+     */
+    public void requestFinished(BaseRequestHandler handler, long startNanos, int status,
+                                long requestBytes, long responseBytes) {
+        inFlight.decrementAndGet();
+        RouteMetrics metrics = routes.get(handler);
+        if (metrics != null) {
+            metrics.record(System.nanoTime() - startNanos, status, requestBytes, responseBytes);
+        }
+    }
+
+    /**
+     * Counts a long-lived response, which keeps being sent after its request has finished,
+     * as in flight. Must be paired with {@link #streamEnded()}.
+     */
+    public void streamStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    public void streamEnded() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public List<RouteMetrics> getRoutes() {
+        synchronized (orderedRoutes) {
+            return new ArrayList<>(orderedRoutes);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.server.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+import io.appium.uiautomator2.http.RawResponseValue;
+import io.appium.uiautomator2.model.ElementRegistry;
+import io.appium.uiautomator2.server.CommandExecutor;
+import io.appium.uiautomator2.server.WDStatus;
+
+/**
+ * Current metrics in the Prometheus text exposition format (version 0.0.4).
+ */
+public class PrometheusMetrics implements RawResponseValue {
+    private static final String PREFIX = "uiautomator2_";
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    private final MetricsRegistry registry;
+    private final CommandExecutor commandExecutor;
+    private final ElementRegistry elements;
+
+    public PrometheusMetrics(MetricsRegistry registry, CommandExecutor commandExecutor,
+                             ElementRegistry elements) {
+        this.registry = registry;
+        this.commandExecutor = commandExecutor;
+        this.elements = elements;
+    }
+
+    @Override
+    public String getContentType() {
+        return "text/plain; version=0.0.4; charset=utf-8";
+    }
+
+    @Override
+    public void writeTo(Writer writer) throws IOException {
+        writeRoutes(writer);
+
+        writeHeader(writer, "requests_in_flight", "gauge", "Requests being handled and event streams being sent at the moment");
+        writeSample(writer, "requests_in_flight", null, String.valueOf(registry.getInFlight()));
+        writeHeader(writer, "command_queue_depth", "gauge", "UI commands waiting for execution");
+        writeSample(writer, "command_queue_depth", null, String.valueOf(commandExecutor.getQueueDepth()));
+        writeHeader(writer, "commands_executed_total", "counter", "UI commands executed");
+        writeSample(writer, "commands_executed_total", null, String.valueOf(commandExecutor.getExecutedCount()));
+        writeHeader(writer, "commands_rejected_total", "counter", "UI commands rejected because the queue was full");
+        writeSample(writer, "commands_rejected_total", null, String.valueOf(commandExecutor.getRejectedCount()));
+        writeHeader(writer, "command_wait_seconds_total", "counter", "Time UI commands spent in the queue");
+        writeSample(writer, "command_wait_seconds_total", null, seconds(commandExecutor.getTotalWaitTimeNanos()));
+        writeHeader(writer, "command_wait_seconds_max", "gauge", "Longest time a UI command spent in the queue");
+        writeSample(writer, "command_wait_seconds_max", null, seconds(commandExecutor.getMaxWaitTimeNanos()));
+
+        writeHeader(writer, "element_cache_size", "gauge", "Found elements kept in the cache");
+        writeSample(writer, "element_cache_size", null, String.valueOf(elements.size()));
+        writeHeader(writer, "element_cache_hits_total", "counter", "Element ids found in the cache");
+        writeSample(writer, "element_cache_hits_total", null, String.valueOf(elements.getHits()));
+        writeHeader(writer, "element_cache_misses_total", "counter", "Element ids missing from the cache");
+        writeSample(writer, "element_cache_misses_total", null, String.valueOf(elements.getMisses()));
+        writeHeader(writer, "element_cache_evictions_total", "counter",
+                "Elements evicted from the cache because of its capacity or timeout");
+        writeSample(writer, "element_cache_evictions_total", null, String.valueOf(elements.getEvictions()));
+    }
+
+    private void writeRoutes(Writer writer) throws IOException {
+        Iterable<RouteMetrics> routes = registry.getRoutes();
+
+        writeHeader(writer, "requests_total", "counter", "Requests handled per route");
+        for (RouteMetrics route : routes) {
+            if (route.getRequests() > 0) {
+                writeSample(writer, "requests_total", labels(route), String.valueOf(route.getRequests()));
+            }
+        }
+
+        writeHeader(writer, "errors_total", "counter", "Failed requests per route and WebDriver status");
+        for (RouteMetrics route : routes) {
+            for (WDStatus status : WDStatus.values()) {
+                long errors = route.getErrors(status.code());
+                if (errors > 0) {
+                    writeSample(writer, "errors_total",
+                            labels(route) + ",status=\"" + status.name() + "\"", String.valueOf(errors));
+                }
+            }
+            if (route.getErrors(-1) > 0) {
+                writeSample(writer, "errors_total", labels(route) + ",status=\"UNKNOWN\"",
+                        String.valueOf(route.getErrors(-1)));
+            }
+        }
+
+        writeHeader(writer, "request_bytes_total", "counter", "Request body bytes per route");
+        for (RouteMetrics route : routes) {
+            if (route.getRequests() > 0) {
+                writeSample(writer, "request_bytes_total", labels(route), String.valueOf(route.getBytesIn()));
+            }
+        }
+        writeHeader(writer, "response_bytes_total", "counter", "Response body bytes per route");
+        for (RouteMetrics route : routes) {
+            if (route.getRequests() > 0) {
+                writeSample(writer, "response_bytes_total", labels(route), String.valueOf(route.getBytesOut()));
+            }
+        }
+
+        writeHeader(writer, "request_duration_seconds", "histogram", "Request latency per route");
+        for (RouteMetrics route : routes) {
+            if (route.getRequests() == 0) {
+                continue;
+            }
+            LatencyHistogram latency = route.getLatency();
+            String labels = labels(route);
+            long cumulativeCount = 0;
+            for (int i = 0; i < LatencyHistogram.getBucketsCount(); i++) {
+                cumulativeCount += latency.getBucketCount(i);
+                long bound = LatencyHistogram.getUpperBoundNanos(i);
+                writeSample(writer, "request_duration_seconds_bucket",
+                        labels + ",le=\"" + (bound == Long.MAX_VALUE ? "+Inf" : seconds(bound)) + "\"",
+                        String.valueOf(cumulativeCount));
+            }
+            writeSample(writer, "request_duration_seconds_sum", labels, seconds(latency.getSumNanos()));
+            writeSample(writer, "request_duration_seconds_count", labels, String.valueOf(latency.getCount()));
+        }
+
+        writeHeader(writer, "request_latency_seconds", "summary",
+                "Request latency percentiles per route estimated from the histogram");
+        for (RouteMetrics route : routes) {
+            if (route.getRequests() == 0) {
+                continue;
+            }
+            for (double quantile : QUANTILES) {
+                writeSample(writer, "request_latency_seconds",
+                        labels(route) + ",quantile=\"" + quantile + "\"",
+                        seconds(route.getLatency().getPercentileNanos(quantile)));
+            }
+            // the summary type requires them, although they repeat the histogram
+            writeSample(writer, "request_latency_seconds_sum", labels(route),
+                    seconds(route.getLatency().getSumNanos()));
+            writeSample(writer, "request_latency_seconds_count", labels(route),
+                    String.valueOf(route.getLatency().getCount()));
+        }
+    }
+
+    private static String labels(RouteMetrics route) {
+        return "method=\"" + escape(route.getMethod()) + "\",route=\"" + escape(route.getRoute()) + "\"";
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String seconds(long nanos) {
+        return BigDecimal.valueOf(nanos, 9).stripTrailingZeros().toPlainString();
+    }
+
+    private static void writeHeader(Writer writer, String name, String type, String help)
+            throws IOException {
+        writer.write("# HELP " + PREFIX + name + " " + help + "\n");
+        writer.write("# TYPE " + PREFIX + name + " " + type + "\n");
+    }
+
+    private static void writeSample(Writer writer, String name, String labels, String value)
+            throws IOException {
+        writer.write(PREFIX);
+        writer.write(name);
+        if (labels != null) {
+            writer.write("{" + labels + "}");
+        }
+        writer.write(" ");
+        writer.write(value);
+        writer.write("\n");
+    }
+}
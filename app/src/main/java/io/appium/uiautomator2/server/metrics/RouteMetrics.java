@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.server.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import io.appium.uiautomator2.server.WDStatus;
+
+/**
+ * Counters of a single route, which is identified by the HTTP method and the mapped URI.
+ */
+public class RouteMetrics {
+    private static final int MAX_STATUS_CODE;
+
+    static {
+        int max = 0;
+        for (WDStatus status : WDStatus.values()) {
+            max = Math.max(max, status.code());
+        }
+        MAX_STATUS_CODE = max;
+    }
+
+    private final String method;
+    private final String route;
+    private final AtomicLong requests = new AtomicLong();
+    // indexed by status code, unknown codes are counted in the last slot
+    private final AtomicLongArray errors = new AtomicLongArray(MAX_STATUS_CODE + 2);
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    RouteMetrics(String method, String route) {
+        this.method = method;
+        this.route = route;
+    }
+
+    void record(long durationNanos, int status, long requestBytes, long responseBytes) {
+        requests.incrementAndGet();
+        if (status != WDStatus.SUCCESS.code()) {
+            errors.incrementAndGet(status >= 0 && status <= MAX_STATUS_CODE
+                    ? status
+                    : MAX_STATUS_CODE + 1);
+        }
+        bytesIn.addAndGet(requestBytes);
+        bytesOut.addAndGet(responseBytes);
+        latency.record(durationNanos);
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @param status one of {@link WDStatus} codes or -1 for the errors with unknown codes
+     */
+    public long getErrors(int status) {
+        return errors.get(status >= 0 && status <= MAX_STATUS_CODE ? status : MAX_STATUS_CODE + 1);
+    }
+
+    public long getBytesIn() {
+        return bytesIn.get();
+    }
+
+    public long getBytesOut() {
+        return bytesOut.get();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+}
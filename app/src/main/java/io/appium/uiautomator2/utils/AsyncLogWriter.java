@@ -0,0 +1,158 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Passes log messages to the sink on a background thread. Messages are queued in a bounded
+ * lock-free ring buffer, so writers never wait. If the buffer is full then the message
+ * is dropped and the number of dropped messages is reported along with the next written one.
+ */
+class AsyncLogWriter {
+    private static final long IDLE_PARK_NANOS = 50 * 1000 * 1000;
+    private static final long FLUSH_POLL_NANOS = 1000 * 1000;
+
+    interface Sink {
+        void write(int priority, String message, Throwable throwable);
+    }
+
+    private static class Entry {
+        final int priority;
+        final String message;
+        final Throwable throwable;
+
+        Entry(int priority, String message, Throwable throwable) {
+            this.priority = priority;
+            this.message = message;
+            this.throwable = throwable;
+        }
+    }
+
+    private final Sink sink;
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    // the next slot to be claimed by a writer
+    private final AtomicLong tail = new AtomicLong();
+    // the next slot to be read, only changed by the drain thread
+    private volatile long head;
+    // the number of entries passed to the sink, only changed by the drain thread
+    private volatile long written;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread drainThread;
+    private volatile boolean isDrainThreadParked;
+
+    /**
+     * @param capacity the maximum number of queued messages, must be a power of two
+     */
+    AsyncLogWriter(int capacity, Sink sink) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The capacity must be a power of two");
+        }
+        this.sink = sink;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        drainThread = new Thread("appium-logger") {
+            @Override
+            public void run() {
+                drain();
+            }
+        };
+        drainThread.setDaemon(true);
+        drainThread.start();
+    }
+
+    /**
+     * @return false if the message has been dropped because the buffer is full
+     */
+    boolean write(int priority, String message, Throwable throwable) {
+        Entry entry = new Entry(priority, message, throwable);
+        long position;
+        do {
+            position = tail.get();
+            if (position - head >= slots.length()) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!tail.compareAndSet(position, position + 1));
+        slots.set((int) (position & mask), entry);
+        if (isDrainThreadParked) {
+            LockSupport.unpark(drainThread);
+        }
+        return true;
+    }
+
+    /**
+     * Waits until all entries queued before the call are passed to the sink.
+     *
+     * @return false if they have not been passed within the timeout
+     */
+    boolean flush(long timeoutMillis) {
+        long target = tail.get();
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (written < target) {
+            if (Thread.currentThread() == drainThread || System.nanoTime() - deadlineNanos >= 0) {
+                return false;
+            }
+            LockSupport.unpark(drainThread);
+            LockSupport.parkNanos(FLUSH_POLL_NANOS);
+        }
+        return true;
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void drain() {
+        long reportedDropped = 0;
+        //noinspection InfiniteLoopStatement
+        while (true) {
+            int index = (int) (head & mask);
+            Entry entry = slots.get(index);
+            if (entry == null) {
+                // either the buffer is empty or the writer has claimed the slot
+                // and has not published the entry yet
+                isDrainThreadParked = true;
+                if (tail.get() == head) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                } else {
+                    Thread.yield();
+                }
+                isDrainThreadParked = false;
+                continue;
+            }
+            slots.set(index, null);
+            head++;
+
+            long totalDropped = dropped.get();
+            if (totalDropped != reportedDropped) {
+                sink.write(android.util.Log.WARN, String.format("%s log messages were dropped "
+                        + "because the log buffer was full", totalDropped - reportedDropped), null);
+                reportedDropped = totalDropped;
+            }
+            try {
+                sink.write(entry.priority, entry.message, entry.throwable);
+            } catch (RuntimeException ignored) {
+                // a broken message must not stop the logging
+            }
+            written++;
+        }
+    }
+}
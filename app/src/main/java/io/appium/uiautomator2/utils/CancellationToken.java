@@ -0,0 +1,148 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.appium.uiautomator2.utils;
+
+import android.support.annotation.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+import io.appium.uiautomator2.common.exceptions.CommandCancelledException;
+
+/**
+ * Tells long-running commands that nobody is waiting for their result anymore, either because
+ * the request deadline has expired or because the client has disconnected. The token of the
+ * executed request is bound to the thread which executes it, so polling and scrolling loops
+ * check it without passing it around.
+ */
+public class CancellationToken {
+    private static final ThreadLocal<CancellationToken> CURRENT = new ThreadLocal<>();
+
+    private final CancellationToken parent;
+    private volatile String cancellationReason;
+    private volatile long deadlineNanos;
+    private volatile long timeoutMillis;
+
+    public CancellationToken() {
+        this(null);
+    }
+
+    /**
+     * @param parent the token, whose cancellation also cancels this one, for example
+     *               the token of the connection the request has been received from
+     */
+    public CancellationToken(@Nullable CancellationToken parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Binds the token to the current thread.
+     */
+    public static void attach(CancellationToken token) {
+        CURRENT.set(token);
+    }
+
+    public static void detach() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the token bound to the current thread or null
+     */
+    @Nullable
+    public static CancellationToken current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Stops the current command if its token has been cancelled.
+     * Does nothing if there is no token bound to the current thread.
+     *
+     * @throws CommandCancelledException if the command should be stopped
+     */
+    public static void checkCurrent() {
+        CancellationToken token = CURRENT.get();
+        if (token != null) {
+            token.throwIfCancelled();
+        }
+    }
+
+    /**
+     * Cancels the token. Only the first reason is kept.
+     */
+    public void cancel(String reason) {
+        if (cancellationReason == null) {
+            cancellationReason = reason;
+        }
+    }
+
+    /**
+     * Sets the deadline, after which the token is considered cancelled.
+     *
+     * @param startNanos    {@link System#nanoTime()} at the moment the request has been received
+     * @param timeoutMillis the amount of milliseconds the client is going to wait for the result
+     */
+    public void setTimeout(long startNanos, long timeoutMillis) {
+        this.deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Long-lived responses, like event streams, outlive the request deadline, so they are only
+     * stopped once the client disconnects.
+     *
+     * @return a new token, which is only cancelled together with the parent of this token
+     */
+    public CancellationToken withoutDeadline() {
+        return new CancellationToken(parent);
+    }
+
+    /**
+     * @return true if the token or any of its parents gets cancelled once a deadline expires
+     */
+    public boolean hasDeadline() {
+        return timeoutMillis > 0 || (parent != null && parent.hasDeadline());
+    }
+
+    public boolean isCancelled() {
+        return getCancellationReason() != null;
+    }
+
+    /**
+     * @return the reason of the cancellation or null if the token is not cancelled
+     */
+    @Nullable
+    public String getCancellationReason() {
+        if (cancellationReason != null) {
+            return cancellationReason;
+        }
+        if (timeoutMillis > 0 && System.nanoTime() - deadlineNanos >= 0) {
+            return String.format("The command has not been completed within %sms", timeoutMillis);
+        }
+        return parent == null ? null : parent.getCancellationReason();
+    }
+
+    /**
+     * @throws CommandCancelledException if the token is cancelled
+     */
+    public void throwIfCancelled() {
+        String reason = getCancellationReason();
+        if (reason != null) {
+            throw new CommandCancelledException(reason);
+        }
+    }
+}
@@ -54,18 +54,24 @@ public abstract class Device {
      * https://code.google.com/p/android/issues/detail?id=73297
      */
     public static void waitForIdle() {
+        long startNanos = System.nanoTime();
         try {
             getUiDevice().waitForIdle();
         } catch (Exception e) {
             Logger.error("Unable wait for AUT to idle");
+        } finally {
+            ServerTiming.mark("idle", startNanos);
         }
     }
 
     public static void waitForIdle(long timeInMS) {
+        long startNanos = System.nanoTime();
         try {
             getUiDevice().waitForIdle(timeInMS);
         } catch (Exception e) {
             Logger.error(String.format("Unable wait %d for AUT to idle", timeInMS));
+        } finally {
+            ServerTiming.mark("idle", startNanos);
         }
     }
 
@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.utils;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Builds org.json objects directly from a character stream, so the source
+ * does not have to be converted to a string first. Values are of the same types
+ * as the ones produced by {@link org.json.JSONTokener}.
+ */
+public class JsonStreamParser {
+    private final JsonReader reader;
+
+    private JsonStreamParser(Reader reader) {
+        this.reader = new JsonReader(reader);
+    }
+
+    /**
+     * @param source the JSON document, which must be an object
+     * @return the parsed object
+     * @throws JSONException if the document is not a valid JSON object
+     */
+    public static JSONObject parseObject(Reader source) throws JSONException {
+        JsonStreamParser parser = new JsonStreamParser(source);
+        try {
+            JSONObject result = parser.readObject();
+            if (parser.reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JSONException("Unexpected content after the end of the JSON object");
+            }
+            return result;
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            throw toJSONException(e);
+        } finally {
+            try {
+                parser.reader.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static JSONException toJSONException(Exception e) {
+        JSONException jsonException = new JSONException(e.getMessage());
+        jsonException.initCause(e);
+        return jsonException;
+    }
+
+    private Object readValue() throws IOException, JSONException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                return readObject();
+            case BEGIN_ARRAY:
+                return readArray();
+            case STRING:
+                return reader.nextString();
+            case NUMBER:
+                return toNumber(reader.nextString());
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return JSONObject.NULL;
+            default:
+                throw new JSONException("Unexpected token " + reader.peek());
+        }
+    }
+
+    private JSONObject readObject() throws IOException, JSONException {
+        JSONObject result = new JSONObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            result.put(name, readValue());
+        }
+        reader.endObject();
+        return result;
+    }
+
+    private JSONArray readArray() throws IOException, JSONException {
+        JSONArray result = new JSONArray();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            result.put(readValue());
+        }
+        reader.endArray();
+        return result;
+    }
+
+    private static Number toNumber(String literal) {
+        if (literal.indexOf('.') < 0 && literal.indexOf('e') < 0 && literal.indexOf('E') < 0) {
+            try {
+                long longValue = Long.parseLong(literal);
+                if (longValue <= Integer.MAX_VALUE && longValue >= Integer.MIN_VALUE) {
+                    return (int) longValue;
+                }
+                return longValue;
+            } catch (NumberFormatException e) {
+                // too large for long
+            }
+        }
+        return Double.valueOf(literal);
+    }
+}
@@ -1,45 +1,170 @@
 package io.appium.uiautomator2.utils;
 
+import android.util.Log;
+
+/**
+ * Messages are passed to logcat asynchronously, so logging never blocks the caller.
+ * Message parts are only converted to strings if the corresponding level is enabled,
+ * so pass them as separate arguments instead of concatenating them beforehand.
+ */
 public class Logger {
     public static final String TAG = "appium";
+    private static final int BUFFER_CAPACITY = 1024;
+    private static final String TRUNCATION_MARKER = "...";
+
+    private static volatile int minPriority = Log.DEBUG;
+    private static volatile int maxMessageLength = 4000;
+
+    private static final AsyncLogWriter WRITER = new AsyncLogWriter(BUFFER_CAPACITY,
+            new AsyncLogWriter.Sink() {
+                @Override
+                public void write(int priority, String message, Throwable throwable) {
+                    if (throwable != null) {
+                        message += '\n' + Log.getStackTraceString(throwable);
+                    }
+                    Log.println(priority, TAG, message);
+                }
+            });
 
     private static String getString(Object... args) {
         StringBuilder content = new StringBuilder();
+        int maxLength = maxMessageLength;
 
         for (Object arg : args) {
-            if (arg != null) {
-                content.append(arg.toString());
+            // the same as concatenation, so nulls are printed as "null"
+            content.append(String.valueOf(arg));
+            if (content.length() > maxLength) {
+                content.setLength(maxLength);
+                content.append(TRUNCATION_MARKER);
+                break;
             }
         }
 
         return content.toString();
     }
 
+    /**
+     * @param priority the lowest priority of logged messages, one of {@link Log} constants.
+     *                 Pass {@link Integer#MAX_VALUE} to disable logging
+     */
+    public static void setLevel(int priority) {
+        minPriority = priority;
+    }
+
+    public static int getLevel() {
+        return minPriority;
+    }
+
+    /**
+     * Longer messages are truncated.
+     */
+    public static void setMaxMessageLength(int length) {
+        maxMessageLength = length;
+    }
+
+    public static int getMaxMessageLength() {
+        return maxMessageLength;
+    }
+
+    public static boolean isDebugEnabled() {
+        return minPriority <= Log.DEBUG;
+    }
+
+    public static boolean isInfoEnabled() {
+        return minPriority <= Log.INFO;
+    }
+
+    public static boolean isWarnEnabled() {
+        return minPriority <= Log.WARN;
+    }
+
+    /**
+     * Waits until the queued messages are passed to logcat, for example before the process dies.
+     *
+     * @return false if they have not been written within the timeout
+     */
+    public static boolean flush(long timeoutMillis) {
+        return WRITER.flush(timeoutMillis);
+    }
+
+    /**
+     * Logs uncaught exceptions and flushes the queued messages before the process dies,
+     * so the messages leading to the crash are not lost. The previous default handler
+     * is still invoked afterwards.
+     */
+    public static void flushOnCrash() {
+        final Thread.UncaughtExceptionHandler previousHandler =
+                Thread.getDefaultUncaughtExceptionHandler();
+        if (previousHandler instanceof CrashFlusher) {
+            return;
+        }
+        Thread.setDefaultUncaughtExceptionHandler(new CrashFlusher(previousHandler));
+    }
+
     /**
      * Logger error
      */
     public static void error(Object... messages) {
-        android.util.Log.e(TAG, getString(messages));
+        if (minPriority <= Log.ERROR) {
+            WRITER.write(Log.ERROR, getString(messages), null);
+        }
     }
 
     /**
      * Logger error
      */
     public static void error(String message, Throwable throwable) {
-        android.util.Log.e(TAG, getString(message), throwable);
+        if (minPriority <= Log.ERROR) {
+            WRITER.write(Log.ERROR, getString(message), throwable);
+        }
+    }
+
+    /**
+     * Logger warn
+     */
+    public static void warn(Object... messages) {
+        if (isWarnEnabled()) {
+            WRITER.write(Log.WARN, getString(messages), null);
+        }
     }
 
     /**
      * Logger info
      */
     public static void info(Object... messages) {
-        android.util.Log.i(TAG, getString(messages));
+        if (isInfoEnabled()) {
+            WRITER.write(Log.INFO, getString(messages), null);
+        }
     }
 
     /**
      * Logger debug
      */
     public static void debug(Object... messages) {
-        android.util.Log.d(TAG, getString(messages));
+        if (isDebugEnabled()) {
+            WRITER.write(Log.DEBUG, getString(messages), null);
+        }
+    }
+
+    private static class CrashFlusher implements Thread.UncaughtExceptionHandler {
+        private static final long FLUSH_TIMEOUT_MILLIS = 1000;
+
+        private final Thread.UncaughtExceptionHandler previousHandler;
+
+        CrashFlusher(Thread.UncaughtExceptionHandler previousHandler) {
+            this.previousHandler = previousHandler;
+        }
+
+        @Override
+        public void uncaughtException(Thread thread, Throwable throwable) {
+            try {
+                error("Uncaught exception in thread " + thread.getName(), throwable);
+                flush(FLUSH_TIMEOUT_MILLIS);
+            } finally {
+                if (previousHandler != null) {
+                    previousHandler.uncaughtException(thread, throwable);
+                }
+            }
+        }
     }
 }
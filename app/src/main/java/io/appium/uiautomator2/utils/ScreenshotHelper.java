@@ -18,33 +18,37 @@ package io.appium.uiautomator2.utils;
 
 import android.app.UiAutomation;
 import android.graphics.Bitmap;
+import android.graphics.Bitmap.CompressFormat;
 import android.graphics.Rect;
 import android.support.annotation.Nullable;
-import android.util.Base64;
 
 import java.io.ByteArrayOutputStream;
 
 import io.appium.uiautomator2.common.exceptions.CompressScreenshotException;
 import io.appium.uiautomator2.common.exceptions.CropScreenshotException;
 import io.appium.uiautomator2.common.exceptions.TakeScreenshotException;
+import io.appium.uiautomator2.model.Screenshot;
 import io.appium.uiautomator2.model.internal.CustomUiDevice;
 
+import static android.graphics.Bitmap.CompressFormat.JPEG;
 import static android.graphics.Bitmap.CompressFormat.PNG;
 
 public class ScreenshotHelper {
+    private static final int JPEG_QUALITY = 90;
 
     private static final UiAutomation uia = CustomUiDevice.getInstance().getInstrumentation()
             .getUiAutomation();
 
     /**
-     * Grab device screenshot and crop it to specifyed area if cropArea is not null.
-     * Compress it to PGN format and convert to Base64 byte-string.
+     * Grab device screenshot and crop it to specified area if cropArea is not null.
+     * Compress it to the given format.
      *
      * @param cropArea Area to crop.
-     * @return Base64-encoded screenshot string.
+     * @param format   Image format. JPEG images are compressed with {@value #JPEG_QUALITY}% quality.
+     * @return Compressed screenshot bytes.
      */
-    public static String takeScreenshot(@Nullable final Rect cropArea) throws
-            TakeScreenshotException, CompressScreenshotException, CropScreenshotException {
+    private static byte[] takeScreenshotBytes(@Nullable final Rect cropArea, final CompressFormat format)
+            throws TakeScreenshotException, CompressScreenshotException, CropScreenshotException {
         Bitmap screenshot = takeDeviceScreenshot();
         try {
             if (cropArea != null) {
@@ -52,15 +56,27 @@ public class ScreenshotHelper {
                 screenshot.recycle();
                 screenshot = elementScreenshot;
             }
-            return Base64.encodeToString(compress(screenshot), Base64.DEFAULT);
+            return compress(screenshot, format);
         } finally {
             screenshot.recycle();
         }
     }
 
-    public static String takeScreenshot() throws CropScreenshotException,
-            CompressScreenshotException, TakeScreenshotException {
-        return takeScreenshot(null);
+    /**
+     * Grab device screenshot and crop it to specified area if cropArea is not null.
+     * Compress it to JPEG format if it is the requested image type or to PNG otherwise.
+     *
+     * @param cropArea Area to crop.
+     * @param mimeType Requested image type, see {@link Screenshot#negotiateMimeType(String)}.
+     * @return Compressed screenshot.
+     */
+    public static Screenshot takeScreenshot(@Nullable final Rect cropArea,
+                                            @Nullable final String mimeType) throws
+            TakeScreenshotException, CompressScreenshotException, CropScreenshotException {
+        if (Screenshot.JPEG.equals(mimeType)) {
+            return new Screenshot(takeScreenshotBytes(cropArea, JPEG), Screenshot.JPEG);
+        }
+        return new Screenshot(takeScreenshotBytes(cropArea, PNG), Screenshot.PNG);
     }
 
     private static Bitmap takeDeviceScreenshot() throws TakeScreenshotException {
@@ -73,10 +89,11 @@ public class ScreenshotHelper {
         return screenshot;
     }
 
-    private static byte[] compress(final Bitmap bitmap) throws CompressScreenshotException {
+    private static byte[] compress(final Bitmap bitmap, final CompressFormat format)
+            throws CompressScreenshotException {
         final ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        if (!bitmap.compress(PNG, 100, stream)) {
-            throw new CompressScreenshotException(PNG);
+        if (!bitmap.compress(format, format == PNG ? 100 : JPEG_QUALITY, stream)) {
+            throw new CompressScreenshotException(format);
         }
         return stream.toByteArray();
     }
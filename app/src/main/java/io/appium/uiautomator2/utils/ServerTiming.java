@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.utils;
+
+import java.util.Locale;
+
+/**
+ * Records how long the phases of the current request take, so they can be reported
+ * to the client in the Server-Timing response header. The recorder is bound to the thread
+ * which executes the request, so helpers mark their phases without passing it around.
+ * Phases marked outside of a request are ignored.
+ */
+public class ServerTiming {
+    public static final String HEADER_NAME = "Server-Timing";
+    private static final int MAX_PHASES = 16;
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private final String[] names = new String[MAX_PHASES];
+    private final long[] durations = new long[MAX_PHASES];
+    private int size;
+
+    /**
+     * Binds a new recorder to the current thread.
+     */
+    public static ServerTiming start() {
+        ServerTiming timing = new ServerTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    /**
+     * Binds the given recorder to the current thread, for example a copy of the recorder
+     * of another request whose result is shared.
+     */
+    public static void attach(ServerTiming timing) {
+        CURRENT.set(timing);
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the recorder bound to the current thread or null
+     */
+    public static ServerTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Adds the time elapsed since the given moment to the phase of the current request.
+     *
+     * @param phase      the phase name, which must be a valid HTTP token
+     * @param startNanos {@link System#nanoTime()} at the beginning of the phase
+     */
+    public static void mark(String phase, long startNanos) {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.add(phase, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Durations of the phases, which are marked several times, are summed up.
+     */
+    public void add(String phase, long durationNanos) {
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(phase)) {
+                durations[i] += durationNanos;
+                return;
+            }
+        }
+        if (size < MAX_PHASES) {
+            names[size] = phase;
+            durations[size] = durationNanos;
+            size++;
+        }
+    }
+
+    /**
+     * @return a new recorder with the phases marked so far
+     */
+    public ServerTiming copy() {
+        ServerTiming result = new ServerTiming();
+        System.arraycopy(names, 0, result.names, 0, size);
+        System.arraycopy(durations, 0, result.durations, 0, size);
+        result.size = size;
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the phases formatted as "name;dur=milliseconds" entries in the order they were
+     * marked first
+     */
+    public String toHeaderValue() {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+            result.append(String.format(Locale.US, "%s;dur=%.3f", names[i], durations[i] / 1e6));
+        }
+        return result.toString();
+    }
+}
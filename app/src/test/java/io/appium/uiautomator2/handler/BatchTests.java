@@ -0,0 +1,194 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.handler;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.appium.uiautomator2.http.AppiumResponse;
+import io.appium.uiautomator2.http.IHttpRequest;
+import io.appium.uiautomator2.http.RawResponseValue;
+import io.appium.uiautomator2.server.AppiumServlet;
+import io.appium.uiautomator2.server.WDStatus;
+import io.appium.uiautomator2.utils.CancellationToken;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@RunWith(PowerMockRunner.class)
+public class BatchTests {
+    private static final String SESSION_ID = "123";
+
+    @Mock
+    private AppiumServlet servlet;
+
+    @Mock
+    private IHttpRequest req;
+
+    private final List<IHttpRequest> dispatched = new ArrayList<>();
+    private final CancellationToken token = new CancellationToken();
+    private Batch batch;
+
+    @Before
+    public void setUp() {
+        batch = new Batch("/wd/hub/session/:sessionId/appium/batch", servlet);
+        Map<String, Object> data = new HashMap<>();
+        data.put(AppiumServlet.SESSION_ID_KEY, SESSION_ID);
+        when(req.data()).thenReturn(data);
+        when(req.cancellationToken()).thenReturn(token);
+        when(servlet.dispatch(any(IHttpRequest.class))).thenAnswer(new Answer<AppiumResponse>() {
+            @Override
+            public AppiumResponse answer(InvocationOnMock invocation) throws JSONException {
+                IHttpRequest request = invocation.getArgument(0);
+                dispatched.add(request);
+                if (request.uri().endsWith("/elements")) {
+                    return new AppiumResponse(SESSION_ID, new JSONArray()
+                            .put(new JSONObject().put("ELEMENT", "e1"))
+                            .put(new JSONObject().put("ELEMENT", "e2")));
+                }
+                if (request.uri().endsWith("/element")) {
+                    return new AppiumResponse(SESSION_ID, new JSONObject().put("ELEMENT", "e0"));
+                }
+                if (request.uri().endsWith("/fail")) {
+                    return new AppiumResponse(SESSION_ID, WDStatus.NO_SUCH_ELEMENT);
+                }
+                if (request.uri().endsWith("/disconnect")) {
+                    token.cancel("The client has closed the connection");
+                }
+                if (request.uri().endsWith("/metrics")) {
+                    return new AppiumResponse(SESSION_ID, new RawResponseValue() {
+                        @Override
+                        public String getContentType() {
+                            return "text/plain";
+                        }
+
+                        @Override
+                        public void writeTo(Writer writer) {
+                        }
+                    });
+                }
+                return new AppiumResponse(SESSION_ID, request.payload().optString("value"));
+            }
+        });
+    }
+
+    private JSONArray executeBatch(JSONObject payload) throws JSONException {
+        when(req.payload()).thenReturn(payload);
+        AppiumResponse response = batch.handle(req);
+        assertEquals(WDStatus.SUCCESS.code(), response.getStatus());
+        return (JSONArray) response.getValue();
+    }
+
+    private static JSONObject command(String method, String path, JSONObject body) throws JSONException {
+        JSONObject command = new JSONObject().put("method", method).put("path", path);
+        if (body != null) {
+            command.put("body", body);
+        }
+        return command;
+    }
+
+    @Test
+    public void shouldExecuteCommandsInOrder() throws JSONException {
+        JSONArray results = executeBatch(new JSONObject().put("commands", new JSONArray()
+                .put(command("POST", "/element", new JSONObject().put("strategy", "id")))
+                .put(command("get", "/wd/hub/session/123/element/e0/text", null))));
+
+        assertEquals(2, results.length());
+        assertEquals("POST", dispatched.get(0).method());
+        assertEquals("/wd/hub/session/123/element", dispatched.get(0).uri());
+        assertEquals("id", dispatched.get(0).payload().getString("strategy"));
+        assertEquals("GET", dispatched.get(1).method());
+        assertEquals("/wd/hub/session/123/element/e0/text", dispatched.get(1).uri());
+        assertEquals(WDStatus.SUCCESS.code(), results.getJSONObject(1).getInt("status"));
+    }
+
+    @Test
+    public void shouldResolveElementReferences() throws JSONException {
+        JSONArray results = executeBatch(new JSONObject().put("commands", new JSONArray()
+                .put(command("POST", "/element", null))
+                .put(command("POST", "/elements", null))
+                .put(command("POST", "/element/${0}/click", null))
+                .put(command("POST", "/echo", new JSONObject()
+                        .put("value", "${1[1]}")))));
+
+        assertEquals(4, results.length());
+        assertEquals("/wd/hub/session/123/element/e0/click", dispatched.get(2).uri());
+        assertEquals("e2", results.getJSONObject(3).getString("value"));
+    }
+
+    @Test
+    public void shouldStopOnError() throws JSONException {
+        JSONArray results = executeBatch(new JSONObject().put("commands", new JSONArray()
+                .put(command("POST", "/fail", null))
+                .put(command("POST", "/element", null))));
+
+        assertEquals(1, results.length());
+        assertEquals(WDStatus.NO_SUCH_ELEMENT.code(), results.getJSONObject(0).getInt("status"));
+        assertEquals(1, dispatched.size());
+    }
+
+    @Test
+    public void shouldContinueOnErrorIfRequested() throws JSONException {
+        JSONArray results = executeBatch(new JSONObject()
+                .put("stopOnError", false)
+                .put("commands", new JSONArray()
+                        .put(command("POST", "/fail", null))
+                        .put(command("POST", "/element/${0}/click", null))
+                        .put(command("POST", "/element", null))));
+
+        assertEquals(3, results.length());
+        // the reference to a failed command cannot be resolved
+        assertEquals(WDStatus.UNKNOWN_ERROR.code(), results.getJSONObject(1).getInt("status"));
+        assertEquals(WDStatus.SUCCESS.code(), results.getJSONObject(2).getInt("status"));
+        assertEquals(2, dispatched.size());
+    }
+
+    @Test
+    public void shouldSkipRemainingCommandsOnceCancelled() throws JSONException {
+        when(req.payload()).thenReturn(new JSONObject().put("commands", new JSONArray()
+                .put(command("POST", "/disconnect", null))
+                .put(command("POST", "/element/e0/click", null))));
+        AppiumResponse response = batch.handle(req);
+
+        assertEquals(WDStatus.TIMEOUT.code(), response.getStatus());
+        assertEquals(1, dispatched.size());
+        assertTrue(dispatched.get(0).cancellationToken().isCancelled());
+    }
+
+    @Test
+    public void shouldRejectResultsWhichAreNotJson() throws JSONException {
+        JSONArray results = executeBatch(new JSONObject().put("commands", new JSONArray()
+                .put(command("GET", "/wd/hub/appium/metrics", null))));
+
+        assertEquals(WDStatus.UNKNOWN_ERROR.code(), results.getJSONObject(0).getInt("status"));
+    }
+}
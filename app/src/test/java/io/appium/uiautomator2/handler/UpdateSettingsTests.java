@@ -34,10 +34,18 @@ import io.appium.uiautomator2.model.Session;
 import io.appium.uiautomator2.model.settings.AbstractSetting;
 import io.appium.uiautomator2.model.settings.ActionAcknowledgmentTimeout;
 import io.appium.uiautomator2.model.settings.AllowInvisibleElements;
+import io.appium.uiautomator2.model.settings.CommandQueueCapacity;
 import io.appium.uiautomator2.model.settings.CompressedLayoutHierarchy;
+import io.appium.uiautomator2.model.settings.ElementCacheCapacity;
+import io.appium.uiautomator2.model.settings.ElementCacheTimeout;
 import io.appium.uiautomator2.model.settings.ElementResponseAttributes;
 import io.appium.uiautomator2.model.settings.EnableNotificationListener;
 import io.appium.uiautomator2.model.settings.KeyInjectionDelay;
+import io.appium.uiautomator2.model.settings.LogLevel;
+import io.appium.uiautomator2.model.settings.LogMessageMaxLength;
+import io.appium.uiautomator2.model.settings.RequestTimeout;
+import io.appium.uiautomator2.model.settings.ResponseCompressionLevel;
+import io.appium.uiautomator2.model.settings.ResponseCompressionThreshold;
 import io.appium.uiautomator2.model.settings.ScrollAcknowledgmentTimeout;
 import io.appium.uiautomator2.model.settings.Settings;
 import io.appium.uiautomator2.model.settings.ShouldUseCompactResponses;
@@ -48,10 +56,18 @@ import io.appium.uiautomator2.server.WDStatus;
 
 import static io.appium.uiautomator2.model.settings.Settings.ACTION_ACKNOWLEDGMENT_TIMEOUT;
 import static io.appium.uiautomator2.model.settings.Settings.ALLOW_INVISIBLE_ELEMENTS;
+import static io.appium.uiautomator2.model.settings.Settings.COMMAND_QUEUE_CAPACITY;
 import static io.appium.uiautomator2.model.settings.Settings.COMPRESSED_LAYOUT_HIERARCHY;
+import static io.appium.uiautomator2.model.settings.Settings.ELEMENT_CACHE_CAPACITY;
+import static io.appium.uiautomator2.model.settings.Settings.ELEMENT_CACHE_TIMEOUT;
 import static io.appium.uiautomator2.model.settings.Settings.ELEMENT_RESPONSE_ATTRIBUTES;
 import static io.appium.uiautomator2.model.settings.Settings.ENABLE_NOTIFICATION_LISTENER;
 import static io.appium.uiautomator2.model.settings.Settings.KEY_INJECTION_DELAY;
+import static io.appium.uiautomator2.model.settings.Settings.LOG_LEVEL;
+import static io.appium.uiautomator2.model.settings.Settings.LOG_MESSAGE_MAX_LENGTH;
+import static io.appium.uiautomator2.model.settings.Settings.REQUEST_TIMEOUT;
+import static io.appium.uiautomator2.model.settings.Settings.RESPONSE_COMPRESSION_LEVEL;
+import static io.appium.uiautomator2.model.settings.Settings.RESPONSE_COMPRESSION_THRESHOLD;
 import static io.appium.uiautomator2.model.settings.Settings.SCROLL_ACKNOWLEDGMENT_TIMEOUT;
 import static io.appium.uiautomator2.model.settings.Settings.SHOULD_USE_COMPACT_RESPONSES;
 import static io.appium.uiautomator2.model.settings.Settings.SHUTDOWN_ON_POWER_DISCONNECT;
@@ -149,6 +165,46 @@ public class UpdateSettingsTests {
         verifySettingIsAvailable(SHUTDOWN_ON_POWER_DISCONNECT, ShutdownOnPowerDisconnect.class);
     }
 
+    @Test
+    public void shouldBeAbleToReturnCommandQueueCapacitySetting() {
+        verifySettingIsAvailable(COMMAND_QUEUE_CAPACITY, CommandQueueCapacity.class);
+    }
+
+    @Test
+    public void shouldBeAbleToReturnResponseCompressionLevelSetting() {
+        verifySettingIsAvailable(RESPONSE_COMPRESSION_LEVEL, ResponseCompressionLevel.class);
+    }
+
+    @Test
+    public void shouldBeAbleToReturnResponseCompressionThresholdSetting() {
+        verifySettingIsAvailable(RESPONSE_COMPRESSION_THRESHOLD, ResponseCompressionThreshold.class);
+    }
+
+    @Test
+    public void shouldBeAbleToReturnLogLevelSetting() {
+        verifySettingIsAvailable(LOG_LEVEL, LogLevel.class);
+    }
+
+    @Test
+    public void shouldBeAbleToReturnLogMessageMaxLengthSetting() {
+        verifySettingIsAvailable(LOG_MESSAGE_MAX_LENGTH, LogMessageMaxLength.class);
+    }
+
+    @Test
+    public void shouldBeAbleToReturnRequestTimeoutSetting() {
+        verifySettingIsAvailable(REQUEST_TIMEOUT, RequestTimeout.class);
+    }
+
+    @Test
+    public void shouldBeAbleToReturnElementCacheCapacitySetting() {
+        verifySettingIsAvailable(ELEMENT_CACHE_CAPACITY, ElementCacheCapacity.class);
+    }
+
+    @Test
+    public void shouldBeAbleToReturnElementCacheTimeoutSetting() {
+        verifySettingIsAvailable(ELEMENT_CACHE_TIMEOUT, ElementCacheTimeout.class);
+    }
+
     @Test(expected=UnsupportedSettingException.class)
     public void shouldThrowExceptionIfSettingIsNotSupported() {
         updateSettings.getSetting("unsupported_setting");
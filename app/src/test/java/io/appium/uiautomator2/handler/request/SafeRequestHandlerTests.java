@@ -0,0 +1,113 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.handler.request;
+
+import android.support.test.uiautomator.StaleObjectException;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.appium.uiautomator2.http.AppiumResponse;
+import io.appium.uiautomator2.http.IHttpRequest;
+import io.appium.uiautomator2.http.impl.InternalHttpRequest;
+import io.appium.uiautomator2.server.AppiumServlet;
+import io.appium.uiautomator2.server.WDStatus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SafeRequestHandlerTests {
+    private static final String ELEMENT_ID = "abc";
+
+    @Test
+    public void shouldRetryRepeatableCommandOnceElementIsFoundAgain() {
+        StaleElementHandler handler = new StaleElementHandler(true, true, 1);
+        AppiumResponse response = handler.handle(elementRequest());
+        assertEquals(WDStatus.SUCCESS.code(), response.getStatus());
+        assertEquals(2, handler.executionsCount);
+        assertEquals(1, handler.rehydratedIds.size());
+        assertEquals(ELEMENT_ID, handler.rehydratedIds.get(0));
+    }
+
+    @Test
+    public void shouldNotRetryCommandsWhichAreNotRepeatable() {
+        StaleElementHandler handler = new StaleElementHandler(false, true, 1);
+        AppiumResponse response = handler.handle(elementRequest());
+        assertEquals(WDStatus.STALE_ELEMENT_REFERENCE.code(), response.getStatus());
+        assertEquals(1, handler.executionsCount);
+        assertTrue(handler.rehydratedIds.isEmpty());
+    }
+
+    @Test
+    public void shouldNotRetryIfElementCannotBeFoundAgain() {
+        StaleElementHandler handler = new StaleElementHandler(true, false, 1);
+        AppiumResponse response = handler.handle(elementRequest());
+        assertEquals(WDStatus.STALE_ELEMENT_REFERENCE.code(), response.getStatus());
+        assertEquals(1, handler.executionsCount);
+    }
+
+    @Test
+    public void shouldRetryOnlyOnce() {
+        StaleElementHandler handler = new StaleElementHandler(true, true, Integer.MAX_VALUE);
+        AppiumResponse response = handler.handle(elementRequest());
+        assertEquals(WDStatus.STALE_ELEMENT_REFERENCE.code(), response.getStatus());
+        assertEquals(2, handler.executionsCount);
+        assertEquals(1, handler.rehydratedIds.size());
+    }
+
+    private static IHttpRequest elementRequest() {
+        IHttpRequest request = new InternalHttpRequest("GET", "/wd/hub/session/1/element/abc/text", null);
+        request.data().put(AppiumServlet.ELEMENT_ID_KEY, ELEMENT_ID);
+        return request;
+    }
+
+    private static class StaleElementHandler extends SafeRequestHandler {
+        private final boolean isRepeatable;
+        private final boolean canBeFoundAgain;
+        private final int staleExecutionsCount;
+        private final List<String> rehydratedIds = new ArrayList<>();
+        private int executionsCount;
+
+        StaleElementHandler(boolean isRepeatable, boolean canBeFoundAgain, int staleExecutionsCount) {
+            super("/wd/hub/session/:sessionId/element/:id/text");
+            this.isRepeatable = isRepeatable;
+            this.canBeFoundAgain = canBeFoundAgain;
+            this.staleExecutionsCount = staleExecutionsCount;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return isRepeatable;
+        }
+
+        @Override
+        protected boolean rehydrate(String elementId) {
+            rehydratedIds.add(elementId);
+            return canBeFoundAgain;
+        }
+
+        @Override
+        protected AppiumResponse safeHandle(IHttpRequest request) {
+            executionsCount++;
+            if (executionsCount <= staleExecutionsCount) {
+                throw new StaleObjectException();
+            }
+            return new AppiumResponse(getSessionId(request), WDStatus.SUCCESS, "text");
+        }
+    }
+}
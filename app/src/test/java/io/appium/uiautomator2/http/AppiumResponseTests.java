@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.http;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import io.appium.uiautomator2.server.WDStatus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AppiumResponseTests {
+    private static final String VALUE = "<hierarchy text=\"a\\b\">\n\t\u0001\u2028</hierarchy>";
+
+    private final StreamableValue streamableValue = new StreamableValue() {
+        @Override
+        public void writeTo(Writer writer) throws IOException {
+            writer.write(VALUE.substring(0, 10));
+            writer.write(VALUE.substring(10));
+        }
+    };
+
+    @Test
+    public void shouldDetectStreamableValues() {
+        assertTrue(new AppiumResponse("123", streamableValue).isStreamable());
+        assertEquals(false, new AppiumResponse("123", VALUE).isStreamable());
+    }
+
+    @Test
+    public void shouldStreamValidJson() throws IOException, JSONException {
+        StringWriter writer = new StringWriter();
+        new AppiumResponse("123", streamableValue).render(writer);
+
+        JSONObject json = new JSONObject(writer.toString());
+        assertEquals("123", json.getString("sessionId"));
+        assertEquals(WDStatus.SUCCESS.code(), json.getInt("status"));
+        assertEquals(VALUE, json.getString("value"));
+    }
+
+    @Test
+    public void shouldStreamNullSessionId() throws IOException, JSONException {
+        StringWriter writer = new StringWriter();
+        new AppiumResponse(null, streamableValue).render(writer);
+
+        assertTrue(new JSONObject(writer.toString()).isNull("sessionId"));
+    }
+
+    @Test
+    public void shouldRenderStreamableValueAsString() throws IOException, JSONException {
+        JSONObject json = new JSONObject(new AppiumResponse("123", streamableValue).render());
+        assertEquals(VALUE, json.getString("value"));
+    }
+
+    @Test
+    public void shouldRenderNestedValues() throws JSONException {
+        JSONObject element = new JSONObject()
+                .put("ELEMENT", "1")
+                .put("rect", new JSONObject().put("x", 1).put("y", 2.5))
+                .put("attributes", new JSONArray().put(true).put(JSONObject.NULL).put(VALUE));
+
+        JSONObject json = new JSONObject(new AppiumResponse("123", element).render());
+        assertEquals(element.toString(), json.getJSONObject("value").toString());
+    }
+
+    @Test
+    public void shouldRenderErrorStatus() throws JSONException {
+        JSONObject json = new JSONObject(new AppiumResponse("123", WDStatus.NO_SUCH_ELEMENT).render());
+        assertEquals(WDStatus.NO_SUCH_ELEMENT.code(), json.getInt("status"));
+        assertEquals(WDStatus.NO_SUCH_ELEMENT.message(), json.getString("value"));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.http;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.ReferenceCountUtil;
+
+import static io.appium.uiautomator2.model.settings.Settings.RESPONSE_COMPRESSION_LEVEL;
+import static io.appium.uiautomator2.model.settings.Settings.RESPONSE_COMPRESSION_THRESHOLD;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ContentCompressorTests {
+    private static final long THRESHOLD = 100;
+
+    private EmbeddedChannel channel;
+
+    @Before
+    public void setUp() {
+        RESPONSE_COMPRESSION_LEVEL.getSetting().update(6);
+        RESPONSE_COMPRESSION_THRESHOLD.getSetting().update(THRESHOLD);
+        channel = new EmbeddedChannel(new ContentCompressor());
+    }
+
+    @After
+    public void tearDown() {
+        channel.finish();
+        RESPONSE_COMPRESSION_LEVEL.getSetting().update(6);
+        RESPONSE_COMPRESSION_THRESHOLD.getSetting().update(1024);
+    }
+
+    @Test
+    public void shouldCompressLargeResponsesWithGzip() {
+        assertEquals("gzip", sendAndGetContentEncoding("gzip, deflate", THRESHOLD));
+    }
+
+    @Test
+    public void shouldCompressLargeResponsesWithDeflate() {
+        assertEquals("deflate", sendAndGetContentEncoding("deflate", THRESHOLD));
+    }
+
+    @Test
+    public void shouldNotCompressSmallResponses() {
+        assertNull(sendAndGetContentEncoding("gzip", THRESHOLD - 1));
+    }
+
+    @Test
+    public void shouldNotCompressIfClientDoesNotSupportIt() {
+        assertNull(sendAndGetContentEncoding(null, THRESHOLD));
+    }
+
+    @Test
+    public void shouldNotCompressIfCompressionIsDisabled() {
+        RESPONSE_COMPRESSION_LEVEL.getSetting().update(0);
+        assertNull(sendAndGetContentEncoding("gzip", THRESHOLD));
+    }
+
+    @Test
+    public void shouldNotCompressImages() {
+        assertNull(sendAndGetContentEncoding("gzip", THRESHOLD, "image/png"));
+    }
+
+    @Test
+    public void shouldNotCompressEventStreams() {
+        assertNull(sendAndGetContentEncoding("gzip", THRESHOLD, "text/event-stream"));
+    }
+
+    private String sendAndGetContentEncoding(String acceptEncoding, long contentLength) {
+        return sendAndGetContentEncoding(acceptEncoding, contentLength, "application/json");
+    }
+
+    private String sendAndGetContentEncoding(String acceptEncoding, long contentLength,
+                                             String contentType) {
+        DefaultFullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1,
+                HttpMethod.GET, "/wd/hub/status");
+        if (acceptEncoding != null) {
+            request.headers().set(HttpHeaders.Names.ACCEPT_ENCODING, acceptEncoding);
+        }
+        channel.writeInbound(request);
+        ReferenceCountUtil.release(channel.readInbound());
+
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
+                HttpResponseStatus.OK, Unpooled.wrappedBuffer(new byte[(int) contentLength]));
+        HttpHeaders.setContentLength(response, contentLength);
+        response.headers().set(HttpHeaders.Names.CONTENT_TYPE, contentType);
+        channel.writeOutbound(response);
+
+        HttpResponse encoded = (HttpResponse) channel.readOutbound();
+        String contentEncoding = encoded.headers().get(HttpHeaders.Names.CONTENT_ENCODING);
+        ReferenceCountUtil.release(encoded);
+        Object message;
+        while ((message = channel.readOutbound()) != null) {
+            ReferenceCountUtil.release(message);
+        }
+        return contentEncoding;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.http;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpVersion;
+
+import static org.junit.Assert.assertEquals;
+
+public class ContentDecompressorTests {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String BODY = "{\"actions\":[{\"type\":\"pointer\",\"id\":\"finger1\"}]}";
+
+    private EmbeddedChannel channel;
+
+    @Before
+    public void setUp() {
+        channel = new EmbeddedChannel(new ContentDecompressor(), new HttpObjectAggregator(65536));
+    }
+
+    @After
+    public void tearDown() {
+        channel.finish();
+    }
+
+    @Test
+    public void shouldDecompressGzipBody() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        write(new GZIPOutputStream(compressed));
+        assertEquals(BODY, sendAndGetBody("gzip", compressed.toByteArray()));
+    }
+
+    @Test
+    public void shouldDecompressDeflateBody() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        write(new DeflaterOutputStream(compressed));
+        assertEquals(BODY, sendAndGetBody("deflate", compressed.toByteArray()));
+    }
+
+    @Test
+    public void shouldPassUncompressedBody() {
+        assertEquals(BODY, sendAndGetBody(null, BODY.getBytes(UTF_8)));
+    }
+
+    private static void write(OutputStream stream) throws IOException {
+        stream.write(BODY.getBytes(UTF_8));
+        stream.close();
+    }
+
+    private String sendAndGetBody(String contentEncoding, byte[] body) {
+        // the same messages as produced by HttpServerCodec
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1,
+                HttpMethod.POST, "/wd/hub/session/123/actions");
+        if (contentEncoding != null) {
+            request.headers().set(HttpHeaders.Names.CONTENT_ENCODING, contentEncoding);
+        }
+        HttpHeaders.setContentLength(request, body.length);
+        channel.writeInbound(request, new DefaultLastHttpContent(Unpooled.wrappedBuffer(body)));
+
+        FullHttpRequest decoded = (FullHttpRequest) channel.readInbound();
+        try {
+            return decoded.content().toString(UTF_8);
+        } finally {
+            decoded.release();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.http;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NotModifiedTests {
+    private static final String TAG = "\"abc-42\"";
+
+    @Test
+    public void shouldMatchSameTag() {
+        assertTrue(NotModified.isMatching("\"abc-42\"", TAG));
+    }
+
+    @Test
+    public void shouldMatchAnyTagInList() {
+        assertTrue(NotModified.isMatching("\"abc-41\", \"abc-42\"", TAG));
+    }
+
+    @Test
+    public void shouldMatchWeakTags() {
+        assertTrue(NotModified.isMatching("W/\"abc-42\"", TAG));
+    }
+
+    @Test
+    public void shouldMatchWildcard() {
+        assertTrue(NotModified.isMatching("*", TAG));
+    }
+
+    @Test
+    public void shouldNotMatchOtherTags() {
+        assertFalse(NotModified.isMatching("\"abc-41\"", TAG));
+        assertFalse(NotModified.isMatching(null, TAG));
+    }
+}
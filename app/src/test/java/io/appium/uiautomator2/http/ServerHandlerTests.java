@@ -0,0 +1,258 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.http;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.appium.uiautomator2.utils.CancellationToken;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.CharsetUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ServerHandlerTests {
+    // requests being handled by the servlet, their responses are ended by the tests
+    private final List<IHttpRequest> requests = new ArrayList<>();
+    private final List<IHttpResponse> responses = new ArrayList<>();
+    private EmbeddedChannel channel;
+
+    @Before
+    public void setUp() {
+        IHttpServlet servlet = new IHttpServlet() {
+            @Override
+            public void handleHttpRequest(IHttpRequest request, IHttpResponse response) {
+                requests.add(request);
+                responses.add(response.startAsync());
+            }
+        };
+        channel = new EmbeddedChannel(new ServerHandler(Collections.singletonList(servlet), 0));
+    }
+
+    @After
+    public void tearDown() {
+        channel.finish();
+    }
+
+    @Test
+    public void shouldCancelRunningCommandWhenClientDisconnects() {
+        channel.writeInbound(request("/wd/hub/session/1/element"));
+        assertEquals(1, requests.size());
+        assertTrue(channel.config().isAutoRead());
+        assertFalse(requests.get(0).cancellationToken().isCancelled());
+
+        channel.close();
+
+        assertTrue(requests.get(0).cancellationToken().isCancelled());
+    }
+
+    @Test
+    public void shouldNoticeSocketClosedDuringCommand() throws Exception {
+        final CountDownLatch received = new CountDownLatch(1);
+        final CancellationToken[] token = new CancellationToken[1];
+        final IHttpServlet servlet = new IHttpServlet() {
+            @Override
+            public void handleHttpRequest(IHttpRequest request, IHttpResponse response) {
+                // the command keeps running, so the response is never ended
+                response.startAsync();
+                token[0] = request.cancellationToken();
+                received.countDown();
+            }
+        };
+        EventLoopGroup group = new NioEventLoopGroup(1);
+        try {
+            Channel server = new ServerBootstrap()
+                    .group(group)
+                    .channel(NioServerSocketChannel.class)
+                    .childHandler(new ChannelInitializer<SocketChannel>() {
+                        @Override
+                        protected void initChannel(SocketChannel ch) {
+                            ch.pipeline().addLast(new HttpServerCodec(),
+                                    new HttpObjectAggregator(65536),
+                                    new ServerHandler(Collections.singletonList(servlet), 0));
+                        }
+                    })
+                    .bind("127.0.0.1", 0).sync().channel();
+            Socket client = new Socket();
+            client.connect(server.localAddress());
+            OutputStream out = client.getOutputStream();
+            out.write("GET /wd/hub/status HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes("US-ASCII"));
+            out.flush();
+            assertTrue(received.await(5, TimeUnit.SECONDS));
+            assertFalse(token[0].isCancelled());
+
+            client.close();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!token[0].isCancelled() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(token[0].isCancelled());
+            server.close().sync();
+        } finally {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void shouldStopStreamingToClientThatDoesNotRead() throws Exception {
+        final CountDownLatch failed = new CountDownLatch(1);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final IHttpServlet servlet = new IHttpServlet() {
+            @Override
+            public void handleHttpRequest(IHttpRequest request, final IHttpResponse response) {
+                request.cancellationToken().setTimeout(System.nanoTime(), 500);
+                response.startAsync();
+                // commands are executed outside of the event loop
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        byte[] data = new byte[64 * 1024];
+                        try {
+                            OutputStream stream = response.startStreaming();
+                            for (int i = 0; i < 1024; i++) {
+                                stream.write(data);
+                            }
+                        } catch (IOException e) {
+                            error.set(e);
+                        }
+                        failed.countDown();
+                    }
+                }).start();
+            }
+        };
+        EventLoopGroup group = new NioEventLoopGroup(1);
+        try {
+            Channel server = new ServerBootstrap()
+                    .group(group)
+                    .channel(NioServerSocketChannel.class)
+                    .childOption(ChannelOption.SO_SNDBUF, 8192)
+                    .childHandler(new ChannelInitializer<SocketChannel>() {
+                        @Override
+                        protected void initChannel(SocketChannel ch) {
+                            ch.pipeline().addLast(new HttpServerCodec(),
+                                    new HttpObjectAggregator(65536),
+                                    new ServerHandler(Collections.singletonList(servlet), 0));
+                        }
+                    })
+                    .bind("127.0.0.1", 0).sync().channel();
+            Socket client = new Socket();
+            client.setReceiveBufferSize(8192);
+            client.connect(server.localAddress());
+            OutputStream out = client.getOutputStream();
+            out.write("GET /wd/hub/source HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes("US-ASCII"));
+            out.flush();
+
+            // the client never reads the response
+            assertTrue(failed.await(10, TimeUnit.SECONDS));
+            assertTrue(error.get() instanceof IOException);
+            // the server has dropped the connection, so the client reads to the end of the stream
+            client.setSoTimeout(5000);
+            byte[] buffer = new byte[64 * 1024];
+            while (client.getInputStream().read(buffer) >= 0) {
+                // skip the chunks sent before the timeout
+            }
+            client.close();
+            server.close().sync();
+        } finally {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void shouldAnswerPipelinedRequestsInOrder() {
+        channel.writeInbound(request("/first"));
+        channel.writeInbound(request("/second"));
+        assertEquals(1, requests.size());
+        assertTrue(channel.config().isAutoRead());
+
+        responses.get(0).setContent("first").end();
+        channel.runPendingTasks();
+        assertEquals("first", readResponse());
+        assertEquals(2, requests.size());
+        assertEquals("/second", requests.get(1).uri());
+
+        responses.get(1).setContent("second").end();
+        channel.runPendingTasks();
+        assertEquals("second", readResponse());
+    }
+
+    @Test
+    public void shouldCancelPendingRequestsWhenClientDisconnects() {
+        channel.writeInbound(request("/first"));
+        channel.writeInbound(request("/second"));
+
+        channel.close();
+        responses.get(0).end();
+        channel.runPendingTasks();
+
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    public void shouldPauseReadingWhenTooManyRequestsArePipelined() {
+        for (int i = 0; i < 17; i++) {
+            channel.writeInbound(request("/" + i));
+        }
+        assertFalse(channel.config().isAutoRead());
+
+        responses.get(0).end();
+        channel.runPendingTasks();
+        assertTrue(channel.config().isAutoRead());
+    }
+
+    private static DefaultFullHttpRequest request(String uri) {
+        return new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, uri);
+    }
+
+    private String readResponse() {
+        FullHttpResponse response = (FullHttpResponse) channel.readOutbound();
+        assertNotNull(response);
+        try {
+            return response.content().toString(CharsetUtil.UTF_8);
+        } finally {
+            response.release();
+        }
+    }
+}
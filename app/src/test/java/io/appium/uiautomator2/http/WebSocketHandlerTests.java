@@ -0,0 +1,126 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.http;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.CloseWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.util.ReferenceCountUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WebSocketHandlerTests {
+    private EmbeddedChannel channel;
+
+    @Before
+    public void setUp() {
+        IHttpServlet servlet = new IHttpServlet() {
+            @Override
+            public void handleHttpRequest(IHttpRequest request, IHttpResponse response)
+                    throws JSONException {
+                switch (request.uri()) {
+                    case "/wd/hub/status":
+                        response.setContent(new JSONObject().put("method", request.method()).toString());
+                        break;
+                    case "/wd/hub/metrics":
+                        response.setContentType("text/plain").setContent("requests_total 1\n");
+                        break;
+                    case "/wd/hub/screenshot":
+                        response.setContentType("image/png").setContent(new byte[]{1, 2, 3});
+                        break;
+                    default:
+                        return;
+                }
+                response.end();
+            }
+        };
+        channel = new EmbeddedChannel(new WebSocketHandler(
+                Collections.singletonList(servlet)));
+    }
+
+    @After
+    public void tearDown() {
+        channel.finish();
+    }
+
+    @Test
+    public void shouldAnswerWithTheCorrelationId() throws JSONException {
+        JSONObject answer = send("{\"id\":\"abc\",\"path\":\"/wd/hub/status\"}");
+        assertEquals("abc", answer.getString("id"));
+        assertEquals(200, answer.getInt("httpStatus"));
+        assertEquals("GET", answer.getJSONObject("response").getString("method"));
+    }
+
+    @Test
+    public void shouldUseTheGivenMethod() throws JSONException {
+        JSONObject answer = send("{\"id\":7,\"method\":\"post\",\"path\":\"/wd/hub/status\"}");
+        assertEquals(7, answer.getInt("id"));
+        assertEquals("POST", answer.getJSONObject("response").getString("method"));
+    }
+
+    @Test
+    public void shouldAnswerWith404ForUnknownPaths() throws JSONException {
+        JSONObject answer = send("{\"id\":1,\"path\":\"/wd/hub/unknown\"}");
+        assertEquals(404, answer.getInt("httpStatus"));
+        assertTrue(answer.isNull("response"));
+    }
+
+    @Test
+    public void shouldAnswerWith400ForInvalidCommands() throws JSONException {
+        assertEquals(400, send("{\"id\":1}").getInt("httpStatus"));
+    }
+
+    @Test
+    public void shouldQuoteTextBodies() throws JSONException {
+        JSONObject answer = send("{\"id\":1,\"path\":\"/wd/hub/metrics\"}");
+        assertEquals("requests_total 1\n", answer.getString("response"));
+    }
+
+    @Test
+    public void shouldEncodeBinaryBodiesAsBase64() throws JSONException {
+        JSONObject answer = send("{\"id\":1,\"path\":\"/wd/hub/screenshot\"}");
+        assertEquals("AQID", answer.getString("response"));
+    }
+
+    @Test
+    public void shouldCloseTheConnectionOnBinaryFrames() {
+        channel.writeInbound(new BinaryWebSocketFrame());
+        Object frame = channel.readOutbound();
+        assertTrue(frame instanceof CloseWebSocketFrame);
+        assertEquals(1003, ((CloseWebSocketFrame) frame).statusCode());
+        ReferenceCountUtil.release(frame);
+    }
+
+    private JSONObject send(String command) throws JSONException {
+        channel.writeInbound(new TextWebSocketFrame(command));
+        TextWebSocketFrame frame = (TextWebSocketFrame) channel.readOutbound();
+        try {
+            return new JSONObject(frame.text());
+        } finally {
+            frame.release();
+        }
+    }
+}
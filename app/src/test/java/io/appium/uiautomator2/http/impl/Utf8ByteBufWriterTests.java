@@ -0,0 +1,54 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.http.impl;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import static org.junit.Assert.assertEquals;
+
+public class Utf8ByteBufWriterTests {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String TEXT = "ascii, \u00e9, \u4e2d, \ud83d\ude00";
+
+    @Test
+    public void shouldEncodeUtf8() throws IOException {
+        ByteBuf buffer = Unpooled.buffer();
+        Utf8ByteBufWriter writer = new Utf8ByteBufWriter(buffer);
+        writer.write(TEXT);
+        writer.close();
+
+        assertEquals(TEXT, buffer.toString(UTF_8));
+    }
+
+    @Test
+    public void shouldEncodeSurrogatePairsSplitBetweenWrites() {
+        ByteBuf buffer = Unpooled.buffer();
+        Utf8ByteBufWriter writer = new Utf8ByteBufWriter(buffer);
+        char[] chars = TEXT.toCharArray();
+        for (char c : chars) {
+            writer.write(new char[]{c}, 0, 1);
+        }
+        writer.close();
+
+        assertEquals(TEXT, buffer.toString(UTF_8));
+    }
+}
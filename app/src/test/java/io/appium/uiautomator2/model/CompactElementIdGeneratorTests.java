@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.model;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompactElementIdGeneratorTests {
+
+    @Test
+    public void shouldEncodeValuesInBase62() {
+        assertEquals("0", encode(0));
+        assertEquals("z", encode(35));
+        assertEquals("Z", encode(61));
+        assertEquals("10", encode(62));
+        assertEquals("aZl8N0y58M7", encode(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void shouldGenerateUniqueShortIds() {
+        ElementIdGenerator generator = new CompactElementIdGenerator();
+        Set<String> ids = new HashSet<>();
+        int totalLength = 0;
+        for (int i = 0; i < 500; i++) {
+            String id = generator.nextId();
+            assertTrue(id, ids.add(id));
+            totalLength += id.length();
+        }
+        // list items found at once are several times smaller than UUIDs
+        assertTrue(totalLength < 500 * UUID.randomUUID().toString().length() / 3);
+    }
+
+    @Test
+    public void shouldKeepIdsUniqueAcrossGeneratorsAndSessions() {
+        ElementIdGenerator first = new CompactElementIdGenerator();
+        ElementIdGenerator second = new CompactElementIdGenerator();
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(ids.add(first.nextId()));
+            assertTrue(ids.add(second.nextId()));
+            if (i % 100 == 0) {
+                first.reset();
+            }
+        }
+    }
+
+    @Test
+    public void shouldChangeSessionPrefixOnReset() {
+        ElementIdGenerator generator = new CompactElementIdGenerator();
+        Set<String> prefixes = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            prefixes.add(generator.nextId().substring(0, 4));
+            generator.reset();
+        }
+        assertNotEquals(1, prefixes.size());
+    }
+
+    private static String encode(long value) {
+        StringBuilder builder = new StringBuilder("#");
+        CompactElementIdGenerator.appendBase62(builder, value);
+        return builder.substring(1);
+    }
+}
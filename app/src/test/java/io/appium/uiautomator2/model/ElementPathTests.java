@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.model;
+
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ElementPathTests {
+
+    @Test
+    public void shouldCollectResourceIdsFromRoot() {
+        AccessibilityNodeInfo root = node("app:id/root");
+        AccessibilityNodeInfo list = node("app:id/list");
+        AccessibilityNodeInfo item = node("app:id/item");
+        AccessibilityNodeInfo title = node(null);
+        setParent(list, root);
+        setParent(item, list);
+        setParent(title, item);
+
+        ElementPath path = ElementPath.of(title);
+
+        assertEquals("/app:id/root/app:id/list/app:id/item/", path.toString());
+        assertNull(path.getResourceId());
+        assertEquals("app:id/item", ElementPath.of(item).getResourceId());
+    }
+
+    @Test
+    public void shouldRecycleFetchedAncestorsOnly() {
+        AccessibilityNodeInfo root = node("app:id/root");
+        AccessibilityNodeInfo item = node("app:id/item");
+        setParent(item, root);
+
+        ElementPath.of(item);
+
+        verify(root).recycle();
+        verify(item, never()).recycle();
+        verify(root, never()).getChild(anyInt());
+    }
+
+    @Test
+    public void shouldShareAncestorsOfSiblings() {
+        AccessibilityNodeInfo root = node("app:id/root");
+        AccessibilityNodeInfo list = node("app:id/list");
+        AccessibilityNodeInfo first = node("app:id/item");
+        AccessibilityNodeInfo second = node("app:id/item");
+        setParent(list, root);
+        setParent(first, list);
+        setParent(second, list);
+        final Map<AccessibilityNodeInfo, NodeIdentity> parents = new HashMap<>();
+        parents.put(list, new NodeIdentity(1, 1));
+        parents.put(first, new NodeIdentity(1, 2));
+        parents.put(second, new NodeIdentity(1, 2));
+        ElementPath.Cache cache = new ElementPath.Cache() {
+            @Override
+            NodeIdentity identityOfParent(AccessibilityNodeInfo node) {
+                return parents.get(node);
+            }
+        };
+
+        assertEquals("/app:id/root/app:id/list/app:id/item", ElementPath.of(first, cache).toString());
+        assertEquals("/app:id/root/app:id/list/app:id/item", ElementPath.of(second, cache).toString());
+
+        verify(second, never()).getParent();
+        verify(list, times(1)).getParent();
+    }
+
+    @Test
+    public void shouldReturnNullForUnknownNodes() {
+        assertNull(ElementPath.of(null));
+    }
+
+    @Test
+    public void shouldCompareResourceIds() {
+        ElementPath path = new ElementPath(new String[]{"a", "b", "c"});
+        ElementPath otherIds = new ElementPath(new String[]{"a", "b", "d"});
+        ElementPath deeper = new ElementPath(new String[]{"a", "b", "c", null});
+
+        assertTrue(path.hasSameResourceIds(new ElementPath(new String[]{"a", "b", "c"})));
+        assertFalse(path.hasSameResourceIds(otherIds));
+        assertFalse(path.hasSameResourceIds(deeper));
+    }
+
+    @Test
+    public void shouldCompareTextAndContentDescription() {
+        String[] ids = {"a"};
+        ElementPath path = new ElementPath(ids, "Alice", "Contact");
+        assertTrue(path.hasSameContent(new ElementPath(ids, "Alice", null)));
+        assertTrue(path.hasSameContent(new ElementPath(ids, "Bob", "Contact")));
+        assertFalse(path.hasSameContent(new ElementPath(ids, "Bob", null)));
+        assertFalse(new ElementPath(ids).hasSameContent(new ElementPath(ids)));
+    }
+
+    private static AccessibilityNodeInfo node(String resourceId) {
+        AccessibilityNodeInfo node = mock(AccessibilityNodeInfo.class);
+        when(node.getViewIdResourceName()).thenReturn(resourceId);
+        return node;
+    }
+
+    private static void setParent(AccessibilityNodeInfo child, AccessibilityNodeInfo parent) {
+        when(child.getParent()).thenReturn(parent);
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ElementRegistryTests {
+    private ElementRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = new ElementRegistry();
+    }
+
+    private static AndroidElement element(String id) {
+        AndroidElement element = mock(AndroidElement.class);
+        when(element.getId()).thenReturn(id);
+        return element;
+    }
+
+    @Test
+    public void shouldLookUpElementsInBothDirections() {
+        AndroidElement element = element("1");
+        NodeIdentity identity = new NodeIdentity(1, 42);
+        registry.add(element, identity);
+
+        assertSame(element, registry.get("1"));
+        assertEquals("1", registry.getId(element));
+        assertEquals("1", registry.getIdOfNode(new NodeIdentity(1, 42)));
+        assertNull(registry.getIdOfNode(new NodeIdentity(2, 42)));
+    }
+
+    @Test
+    public void shouldNotReturnIdOfUnregisteredInstance() {
+        registry.add(element("1"), null);
+
+        assertNull(registry.getId(element("1")));
+    }
+
+    @Test
+    public void shouldForgetNodeOfReplacedElement() {
+        NodeIdentity identity = new NodeIdentity(1, 42);
+        registry.add(element("1"), identity);
+        AndroidElement replacement = element("1");
+        registry.add(replacement, null);
+
+        assertSame(replacement, registry.get("1"));
+        assertNull(registry.getIdOfNode(identity));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void shouldKeepNodeOfNewerElementWhenOlderIsRemoved() {
+        NodeIdentity identity = new NodeIdentity(1, 42);
+        registry.add(element("1"), identity);
+        registry.add(element("2"), identity);
+        registry.remove("1");
+
+        assertEquals("2", registry.getIdOfNode(identity));
+    }
+
+    @Test
+    public void shouldRemoveAndClearElements() {
+        AndroidElement element = element("1");
+        registry.add(element, new NodeIdentity(1, 1));
+        registry.add(element("2"), new NodeIdentity(1, 2));
+
+        assertSame(element, registry.remove("1"));
+        assertNull(registry.get("1"));
+        assertNull(registry.getIdOfNode(new NodeIdentity(1, 1)));
+        assertNull(registry.remove("1"));
+
+        registry.clear();
+        assertEquals(0, registry.size());
+        assertNull(registry.getIdOfNode(new NodeIdentity(1, 2)));
+    }
+
+    @Test
+    public void shouldReuseElementRegisteredForSameNode() {
+        AndroidElement element = element("1");
+        registry.add(element, new NodeIdentity(1, 42));
+
+        assertSame(element, registry.getByNode(new NodeIdentity(1, 42)));
+        assertSame(element, registry.addIfAbsent(element("2"), new NodeIdentity(1, 42)));
+        assertNull(registry.get("2"));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void shouldAddElementsOfOtherNodes() {
+        registry.add(element("1"), new NodeIdentity(1, 42));
+        AndroidElement other = element("2");
+        AndroidElement unknown = element("3");
+
+        assertSame(other, registry.addIfAbsent(other, new NodeIdentity(2, 42)));
+        assertSame(unknown, registry.addIfAbsent(unknown, null));
+        assertEquals(3, registry.size());
+    }
+
+    @Test
+    public void shouldNotReuseEvictedElements() {
+        registry = new ElementRegistry(1, 0);
+        registry.add(element("1"), new NodeIdentity(1, 42));
+        registry.add(element("2"), null);
+        AndroidElement element = element("3");
+
+        assertNull(registry.getByNode(new NodeIdentity(1, 42)));
+        assertSame(element, registry.addIfAbsent(element, new NodeIdentity(1, 42)));
+    }
+
+    @Test
+    public void shouldKeepPathOfElement() {
+        ElementPath path = new ElementPath(new String[]{null, "app:id/item"});
+        registry.add(element("1"), new NodeIdentity(1, 1), path);
+        registry.addIfAbsent(element("2"), new NodeIdentity(1, 2), path);
+        registry.add(element("3"), null);
+
+        assertEquals(path, registry.getPath("1"));
+        assertEquals(path, registry.getPath("2"));
+        assertNull(registry.getPath("3"));
+        assertNull(registry.getPath("4"));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedElements() {
+        registry = new ElementRegistry(2, 0);
+        registry.add(element("1"), new NodeIdentity(1, 1));
+        registry.add(element("2"), null);
+        registry.get("1");
+        registry.add(element("3"), null);
+
+        assertEquals(2, registry.size());
+        assertNull(registry.get("2"));
+        assertTrue(registry.isEvicted("2"));
+        assertEquals("1", registry.getIdOfNode(new NodeIdentity(1, 1)));
+        assertEquals(1, registry.getEvictions());
+    }
+
+    @Test
+    public void shouldEvictElementsWhenCapacityDecreases() {
+        registry.add(element("1"), new NodeIdentity(1, 1));
+        registry.add(element("2"), null);
+        registry.setCapacity(1);
+
+        assertEquals(1, registry.size());
+        assertTrue(registry.isEvicted("1"));
+        assertNull(registry.getIdOfNode(new NodeIdentity(1, 1)));
+    }
+
+    @Test
+    public void shouldEvictUnusedElementsAfterTimeout() throws InterruptedException {
+        registry = new ElementRegistry(10, 1);
+        registry.add(element("1"), new NodeIdentity(1, 1));
+        Thread.sleep(10);
+
+        assertNull(registry.get("1"));
+        assertTrue(registry.isEvicted("1"));
+        assertNull(registry.getIdOfNode(new NodeIdentity(1, 1)));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void shouldNotReportRemovedOrClearedElementsAsEvicted() {
+        registry.add(element("1"), null);
+        registry.remove("1");
+        registry = new ElementRegistry(1, 0);
+        registry.add(element("2"), null);
+        registry.add(element("3"), null);
+        registry.clear();
+
+        assertFalse(registry.isEvicted("1"));
+        assertFalse(registry.isEvicted("2"));
+    }
+
+    @Test
+    public void shouldCountHitsAndMisses() {
+        registry.add(element("1"), null);
+        registry.get("1");
+        registry.get("1");
+        registry.get("2");
+
+        assertEquals(2, registry.getHits());
+        assertEquals(1, registry.getMisses());
+        assertEquals(0, registry.getEvictions());
+    }
+
+    @Test
+    public void shouldIndexTenThousandElements() {
+        int count = 10000;
+        List<AndroidElement> elements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            AndroidElement element = element(String.valueOf(i));
+            elements.add(element);
+            registry.add(element, new NodeIdentity(i % 4, i));
+        }
+
+        assertEquals(count, registry.size());
+        for (int i = 0; i < count; i++) {
+            AndroidElement element = elements.get(i);
+            assertSame(element, registry.get(String.valueOf(i)));
+            assertEquals(String.valueOf(i), registry.getId(element));
+            assertEquals(String.valueOf(i), registry.getIdOfNode(new NodeIdentity(i % 4, i)));
+        }
+    }
+
+    @Test
+    public void shouldAcceptConcurrentRegistrations() throws InterruptedException {
+        final int threadsCount = 4;
+        final int perThread = 2500;
+        final List<AndroidElement> elements = new ArrayList<>(threadsCount * perThread);
+        for (int i = 0; i < threadsCount * perThread; i++) {
+            elements.add(element(String.valueOf(i)));
+        }
+        Thread[] threads = new Thread[threadsCount];
+        for (int t = 0; t < threadsCount; t++) {
+            final int offset = t * perThread;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = offset; i < offset + perThread; i++) {
+                        registry.add(elements.get(i), new NodeIdentity(0, i));
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(threadsCount * perThread, registry.size());
+        for (int i = 0; i < elements.size(); i++) {
+            assertEquals(String.valueOf(i), registry.getIdOfNode(new NodeIdentity(0, i)));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.model;
+
+import org.junit.Test;
+
+import static io.appium.uiautomator2.model.Screenshot.JPEG;
+import static io.appium.uiautomator2.model.Screenshot.PNG;
+import static io.appium.uiautomator2.model.Screenshot.negotiateMimeType;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ScreenshotTests {
+
+    @Test
+    public void shouldNotNegotiateImagesForJsonClients() {
+        assertNull(negotiateMimeType(null));
+        assertNull(negotiateMimeType("application/json"));
+        assertNull(negotiateMimeType("*/*"));
+    }
+
+    @Test
+    public void shouldNegotiateExplicitImageTypes() {
+        assertEquals(PNG, negotiateMimeType("image/png"));
+        assertEquals(JPEG, negotiateMimeType("application/json, image/jpeg"));
+        assertEquals(PNG, negotiateMimeType("image/*"));
+    }
+
+    @Test
+    public void shouldPreferTheHigherQuality() {
+        assertEquals(JPEG, negotiateMimeType("image/png;q=0.5, image/jpeg"));
+        assertEquals(PNG, negotiateMimeType("image/png, image/jpeg;q=0.8"));
+        assertNull(negotiateMimeType("image/png;q=0"));
+    }
+
+    @Test
+    public void shouldWeighImagesAgainstJson() {
+        assertNull(negotiateMimeType("image/png;q=0.5, application/json"));
+        assertNull(negotiateMimeType("image/jpeg;q=0.5, */*"));
+        assertEquals(PNG, negotiateMimeType("image/png, */*;q=0.1"));
+        assertEquals(JPEG, negotiateMimeType("application/json;q=0.9, image/jpeg"));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.model;
+
+import android.support.test.uiautomator.UiObject2;
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StaleElementResolverTests {
+    private AccessibilityNodeInfo list;
+
+    @Before
+    public void setUp() {
+        AccessibilityNodeInfo root = node("app:id/root", null);
+        list = node("app:id/list", null);
+        when(list.getParent()).thenReturn(root);
+    }
+
+    @Test
+    public void shouldNotRebindToReusedRowWithOtherContent() throws Exception {
+        ElementPath original = ElementPath.of(row("Alice"));
+        // the rebuilt list shows other data in the reused rows
+        UiObject2 first = uiObject(row("Carol"));
+        UiObject2 second = uiObject(row("Dave"));
+
+        assertNull(StaleElementResolver.select(Arrays.<Object>asList(first, second), original));
+    }
+
+    @Test
+    public void shouldRebindToRowWithSameContent() throws Exception {
+        ElementPath original = ElementPath.of(row("Alice"));
+        UiObject2 inserted = uiObject(row("Bob"));
+        UiObject2 moved = uiObject(row("Alice"));
+
+        assertSame(moved, StaleElementResolver.select(Arrays.<Object>asList(inserted, moved), original));
+    }
+
+    @Test
+    public void shouldRebindWithoutContentIfLocatorIsUnique() throws Exception {
+        ElementPath original = ElementPath.of(row(null));
+        UiObject2 rebuilt = uiObject(row(null));
+
+        assertSame(rebuilt, StaleElementResolver.select(Collections.<Object>singletonList(rebuilt),
+                original));
+    }
+
+    @Test
+    public void shouldNotRebindAmbiguousMatches() throws Exception {
+        ElementPath original = ElementPath.of(row("Delete"));
+        UiObject2 first = uiObject(row("Delete"));
+        UiObject2 second = uiObject(row("Delete"));
+
+        assertNull(StaleElementResolver.select(Arrays.<Object>asList(first, second), original));
+    }
+
+    @Test
+    public void shouldIgnoreNodesWithOtherResourceIds() throws Exception {
+        ElementPath original = ElementPath.of(row("Alice"));
+        AccessibilityNodeInfo other = node("app:id/header", "Alice");
+        when(other.getParent()).thenReturn(list);
+
+        assertNull(StaleElementResolver.select(Collections.<Object>singletonList(uiObject(other)),
+                original));
+    }
+
+    private AccessibilityNodeInfo row(String text) {
+        AccessibilityNodeInfo row = node("app:id/item", text);
+        when(row.getParent()).thenReturn(list);
+        return row;
+    }
+
+    private static AccessibilityNodeInfo node(String resourceId, String text) {
+        AccessibilityNodeInfo node = mock(AccessibilityNodeInfo.class);
+        when(node.getViewIdResourceName()).thenReturn(resourceId);
+        when(node.getText()).thenReturn(text);
+        return node;
+    }
+
+    private static UiObject2 uiObject(AccessibilityNodeInfo node) throws Exception {
+        UiObject2 uiObject = mock(UiObject2.class);
+        cachedNodeField().set(uiObject, node);
+        return uiObject;
+    }
+
+    private static Field cachedNodeField() throws NoSuchFieldException {
+        Field field = UiObject2.class.getDeclaredField("mCachedNode");
+        field.setAccessible(true);
+        return field;
+    }
+}
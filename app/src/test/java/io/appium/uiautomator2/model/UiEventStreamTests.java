@@ -0,0 +1,114 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.model;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.Set;
+
+import io.appium.uiautomator2.http.IHttpResponse;
+import io.appium.uiautomator2.utils.CancellationToken;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UiEventStreamTests {
+    private static final Set<String> NONE = Collections.emptySet();
+
+    @After
+    public void tearDown() {
+        UiEventStream.getInstance().closeAll("test has finished");
+    }
+
+    @Test
+    public void shouldCloseStreamOfDisconnectedClient() {
+        CancellationToken connectionToken = new CancellationToken();
+        IHttpResponse response = mockResponse(new ByteArrayOutputStream());
+        new UiEventStream.Subscriber(NONE, NONE, new CancellationToken(connectionToken))
+                .start(response);
+        assertEquals(1, UiEventStream.getInstance().getSubscribersCount());
+
+        connectionToken.cancel("The client has closed the connection");
+        UiEventStream.getInstance().removeCancelled();
+
+        assertEquals(0, UiEventStream.getInstance().getSubscribersCount());
+        verify(response).end();
+    }
+
+    @Test
+    public void shouldCloseAllStreamsWhenListenerStops() {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        IHttpResponse response = mockResponse(stream);
+        new UiEventStream.Subscriber(NONE, NONE, new CancellationToken()).start(response);
+
+        UiEventStream.getInstance().closeAll("The notification listener has been stopped");
+
+        assertEquals(0, UiEventStream.getInstance().getSubscribersCount());
+        assertTrue(stream.toString().endsWith(
+                "event: close\ndata: The notification listener has been stopped\n\n"));
+        verify(response).end();
+    }
+
+    @Test
+    public void shouldSkipSubscribersWhichDoNotRead() {
+        ByteArrayOutputStream slowStream = new ByteArrayOutputStream();
+        IHttpResponse slowResponse = mockResponse(slowStream);
+        new UiEventStream.Subscriber(NONE, NONE, new CancellationToken()).start(slowResponse);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        new UiEventStream.Subscriber(NONE, NONE, new CancellationToken()).start(mockResponse(stream));
+        when(slowResponse.isWritable()).thenReturn(false);
+
+        UiEventStream.getInstance().dispatch(new UiEvent(UiEvent.TOAST, "com.example",
+                "android.widget.Toast$TN", Collections.singletonList("Saved"), 1234));
+
+        assertEquals(": connected\n\n", slowStream.toString());
+        assertTrue(stream.toString().contains("event: toast\n"));
+        assertEquals(2, UiEventStream.getInstance().getSubscribersCount());
+    }
+
+    @Test
+    public void shouldRejectResponsesWhichCannotBeStreamed() {
+        IHttpResponse response = mockResponse(new ByteArrayOutputStream());
+        when(response.isStreaming()).thenReturn(false);
+        when(response.setContent(anyString())).thenReturn(response);
+        new UiEventStream.Subscriber(NONE, NONE, new CancellationToken()).start(response);
+
+        assertEquals(0, UiEventStream.getInstance().getSubscribersCount());
+        verify(response).setStatus(400);
+        verify(response).setContent("UI events can only be streamed over HTTP connections");
+        verify(response).end();
+    }
+
+    private static IHttpResponse mockResponse(ByteArrayOutputStream stream) {
+        IHttpResponse response = mock(IHttpResponse.class);
+        when(response.startAsync()).thenReturn(response);
+        when(response.setStatus(anyInt())).thenReturn(response);
+        when(response.setContentType(anyString())).thenReturn(response);
+        when(response.setHeader(anyString(), anyString())).thenReturn(response);
+        when(response.startStreaming()).thenReturn(stream);
+        when(response.isStreaming()).thenReturn(true);
+        when(response.isWritable()).thenReturn(true);
+        return response;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.model;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import io.appium.uiautomator2.utils.CancellationToken;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UiEventTests {
+    private static final UiEvent TOAST = new UiEvent(UiEvent.TOAST, "com.example",
+            "android.widget.Toast$TN", Collections.singletonList("Saved\nsuccessfully"), 1234);
+
+    @Test
+    public void shouldFormatServerSentEvent() throws JSONException {
+        String message = TOAST.toServerSentEvent();
+        assertTrue(message.startsWith("event: toast\ndata: "));
+        assertTrue(message.endsWith("\n\n"));
+
+        String data = message.substring("event: toast\ndata: ".length(), message.length() - 2);
+        assertFalse(data.contains("\n"));
+        JSONObject json = new JSONObject(data);
+        assertEquals("toast", json.getString("type"));
+        assertEquals("com.example", json.getString("package"));
+        assertEquals("Saved\nsuccessfully", json.getJSONArray("text").getString(0));
+        assertEquals(1234, json.getLong("timestamp"));
+    }
+
+    @Test
+    public void shouldAcceptAllEventsWithoutFilters() {
+        Set<String> none = Collections.emptySet();
+        assertTrue(new UiEventStream.Subscriber(none, none, new CancellationToken()).accepts(TOAST));
+    }
+
+    @Test
+    public void shouldFilterByTypeAndPackage() {
+        Set<String> types = new HashSet<>(Arrays.asList(UiEvent.TOAST, UiEvent.SCROLLED));
+        Set<String> none = Collections.emptySet();
+        assertTrue(new UiEventStream.Subscriber(types, none, new CancellationToken()).accepts(TOAST));
+        assertFalse(new UiEventStream.Subscriber(Collections.singleton(UiEvent.NOTIFICATION), none,
+                new CancellationToken()).accepts(TOAST));
+        assertTrue(new UiEventStream.Subscriber(types, Collections.singleton("com.example"),
+                new CancellationToken()).accepts(TOAST));
+        assertFalse(new UiEventStream.Subscriber(none, Collections.singleton("com.other"),
+                new CancellationToken()).accepts(TOAST));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.model.settings;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.appium.uiautomator2.model.AndroidElement;
+import io.appium.uiautomator2.model.ElementRegistry;
+import io.appium.uiautomator2.model.KnownElements;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ElementCacheCapacityTests {
+    private ElementCacheCapacity elementCacheCapacity;
+
+    @Before
+    public void setUp() {
+        elementCacheCapacity = new ElementCacheCapacity();
+    }
+
+    @After
+    public void tearDown() {
+        elementCacheCapacity.update(5000);
+        KnownElements.getRegistry().clear();
+    }
+
+    @Test
+    public void shouldBeLong() {
+        Assert.assertEquals(Long.class, elementCacheCapacity.getValueType());
+    }
+
+    @Test
+    public void shouldReturnValidSettingName() {
+        Assert.assertEquals("elementCacheCapacity", elementCacheCapacity.getName());
+    }
+
+    @Test
+    public void shouldHaveDefaultValue() {
+        Assert.assertEquals(Long.valueOf(5000), elementCacheCapacity.getValue());
+    }
+
+    @Test
+    public void shouldLimitKnownElements() {
+        elementCacheCapacity.update(1);
+        ElementRegistry registry = KnownElements.getRegistry();
+        registry.add(element("1"), null);
+        registry.add(element("2"), null);
+
+        Assert.assertEquals(Long.valueOf(1), elementCacheCapacity.getValue());
+        Assert.assertEquals(1, registry.size());
+        Assert.assertTrue(registry.isEvicted("1"));
+    }
+
+    @Test
+    public void shouldIgnoreNonPositiveValues() {
+        elementCacheCapacity.update(0);
+        Assert.assertEquals(Long.valueOf(5000), elementCacheCapacity.getValue());
+    }
+
+    @Test
+    public void shouldIgnoreTooLargeValues() {
+        elementCacheCapacity.update(Integer.MAX_VALUE + 1L);
+        Assert.assertEquals(Long.valueOf(5000), elementCacheCapacity.getValue());
+    }
+
+    private static AndroidElement element(String id) {
+        AndroidElement element = mock(AndroidElement.class);
+        when(element.getId()).thenReturn(id);
+        return element;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.model.settings;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ElementCacheTimeoutTests {
+    private ElementCacheTimeout elementCacheTimeout;
+
+    @Before
+    public void setUp() {
+        elementCacheTimeout = new ElementCacheTimeout();
+    }
+
+    @After
+    public void tearDown() {
+        elementCacheTimeout.update(0);
+    }
+
+    @Test
+    public void shouldBeLong() {
+        Assert.assertEquals(Long.class, elementCacheTimeout.getValueType());
+    }
+
+    @Test
+    public void shouldReturnValidSettingName() {
+        Assert.assertEquals("elementCacheTimeout", elementCacheTimeout.getName());
+    }
+
+    @Test
+    public void shouldBeDisabledByDefault() {
+        Assert.assertEquals(Long.valueOf(0), elementCacheTimeout.getValue());
+    }
+
+    @Test
+    public void shouldBeAbleToSetValue() {
+        elementCacheTimeout.update(60000);
+        Assert.assertEquals(Long.valueOf(60000), elementCacheTimeout.getValue());
+    }
+
+    @Test
+    public void shouldIgnoreNegativeValues() {
+        elementCacheTimeout.update(-1);
+        Assert.assertEquals(Long.valueOf(0), elementCacheTimeout.getValue());
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.model.settings;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LogLevelTests {
+    private LogLevel logLevel;
+
+    @Before
+    public void setUp() {
+        logLevel = new LogLevel();
+    }
+
+    @After
+    public void tearDown() {
+        logLevel.update("debug");
+    }
+
+    @Test
+    public void shouldBeString() {
+        Assert.assertEquals(String.class, logLevel.getValueType());
+    }
+
+    @Test
+    public void shouldReturnValidSettingName() {
+        Assert.assertEquals("logLevel", logLevel.getName());
+    }
+
+    @Test
+    public void shouldBeAbleToSetValue() {
+        logLevel.update("ERROR");
+        Assert.assertEquals("error", logLevel.getValue());
+        logLevel.update("warn");
+        Assert.assertEquals("warn", logLevel.getValue());
+        logLevel.update("none");
+        Assert.assertEquals("none", logLevel.getValue());
+    }
+
+    @Test
+    public void shouldIgnoreInvalidValues() {
+        logLevel.update("info");
+        logLevel.update("verbose");
+        Assert.assertEquals("info", logLevel.getValue());
+    }
+}
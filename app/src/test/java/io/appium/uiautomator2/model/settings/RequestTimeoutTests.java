@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.model.settings;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RequestTimeoutTests {
+    private RequestTimeout requestTimeout;
+
+    @Before
+    public void setUp() {
+        requestTimeout = new RequestTimeout();
+    }
+
+    @Test
+    public void shouldBeLong() {
+        Assert.assertEquals(Long.class, requestTimeout.getValueType());
+    }
+
+    @Test
+    public void shouldReturnValidSettingName() {
+        Assert.assertEquals("requestTimeout", requestTimeout.getName());
+    }
+
+    @Test
+    public void shouldBeDisabledByDefault() {
+        Assert.assertEquals(Long.valueOf(0), requestTimeout.getValue());
+    }
+
+    @Test
+    public void shouldBeAbleToSetValue() {
+        requestTimeout.update(30000);
+        Assert.assertEquals(Long.valueOf(30000), requestTimeout.getValue());
+    }
+
+    @Test
+    public void shouldIgnoreNegativeValues() {
+        requestTimeout.update(-1);
+        Assert.assertEquals(Long.valueOf(0), requestTimeout.getValue());
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.model.settings;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResponseCompressionLevelTests {
+    private ResponseCompressionLevel responseCompressionLevel;
+
+    @Before
+    public void setUp() {
+        responseCompressionLevel = new ResponseCompressionLevel();
+    }
+
+    @Test
+    public void shouldBeLong() {
+        Assert.assertEquals(Long.class, responseCompressionLevel.getValueType());
+    }
+
+    @Test
+    public void shouldReturnValidSettingName() {
+        Assert.assertEquals("responseCompressionLevel", responseCompressionLevel.getName());
+    }
+
+    @Test
+    public void shouldBeAbleToSetValue() {
+        responseCompressionLevel.update(9);
+        Assert.assertEquals(Long.valueOf(9), responseCompressionLevel.getValue());
+    }
+
+    @Test
+    public void shouldIgnoreInvalidValues() {
+        long defaultValue = responseCompressionLevel.getValue();
+        responseCompressionLevel.update(10);
+        Assert.assertEquals(Long.valueOf(defaultValue), responseCompressionLevel.getValue());
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.server;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static io.appium.uiautomator2.model.settings.Settings.COMMAND_QUEUE_CAPACITY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CommandExecutorTests {
+    private static final long CAPACITY = 2;
+
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private CommandExecutor executor;
+
+    @Before
+    public void setUp() {
+        COMMAND_QUEUE_CAPACITY.getSetting().update(CAPACITY);
+        executor = new CommandExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        unblock.countDown();
+    }
+
+    @Test
+    public void shouldRejectCommandsIfQueueIsFull() throws InterruptedException {
+        assertTrue(executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    unblock.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Runnable noop = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        for (int i = 0; i < CAPACITY; i++) {
+            assertTrue(executor.execute(noop));
+        }
+        assertEquals(CAPACITY, executor.getQueueDepth());
+        assertFalse(executor.execute(noop));
+        assertEquals(1, executor.getRejectedCount());
+    }
+
+    @Test
+    public void shouldExecuteCommandsSequentially() throws InterruptedException {
+        final StringBuilder order = new StringBuilder();
+        final CountDownLatch done = new CountDownLatch(2);
+        for (final String name : new String[]{"a", "b"}) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    order.append(name);
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals("ab", order.toString());
+        assertEquals(0, executor.getQueueDepth());
+    }
+}
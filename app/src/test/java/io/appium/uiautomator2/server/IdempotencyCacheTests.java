@@ -0,0 +1,107 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.server;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import io.appium.uiautomator2.common.exceptions.IdempotencyKeyReusedException;
+import io.appium.uiautomator2.http.AppiumResponse;
+import io.appium.uiautomator2.http.IHttpRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.when;
+
+@RunWith(PowerMockRunner.class)
+public class IdempotencyCacheTests {
+    private static final AppiumResponse RESPONSE = new AppiumResponse("123", WDStatus.SUCCESS, "clicked");
+    private static final String BODY_HASH = "hash";
+
+    @Mock
+    private IHttpRequest request;
+
+    @Before
+    public void setUp() {
+        when(request.method()).thenReturn("POST");
+        when(request.uri()).thenReturn("/wd/hub/session/123/element/1/click");
+        when(request.header(IdempotencyCache.HEADER_NAME)).thenReturn("abc");
+        when(request.body()).thenReturn("{\"text\":\"hello\"}");
+    }
+
+    @Test
+    public void shouldReturnStoredResponse() {
+        IdempotencyCache cache = new IdempotencyCache();
+        String key = IdempotencyCache.keyOf(request);
+        String bodyHash = IdempotencyCache.bodyHashOf(request);
+        assertNull(cache.get(key, bodyHash));
+        cache.put(key, bodyHash, RESPONSE);
+        assertSame(RESPONSE, cache.get(key, bodyHash));
+    }
+
+    @Test(expected = IdempotencyKeyReusedException.class)
+    public void shouldRejectKeyReusedWithAnotherBody() {
+        IdempotencyCache cache = new IdempotencyCache();
+        String key = IdempotencyCache.keyOf(request);
+        cache.put(key, IdempotencyCache.bodyHashOf(request), RESPONSE);
+        when(request.body()).thenReturn("{\"text\":\"goodbye\"}");
+        cache.get(key, IdempotencyCache.bodyHashOf(request));
+    }
+
+    @Test
+    public void shouldIgnoreRequestsWithoutKey() {
+        when(request.header(IdempotencyCache.HEADER_NAME)).thenReturn(null);
+        assertNull(IdempotencyCache.keyOf(request));
+    }
+
+    @Test
+    public void shouldIgnoreGetRequests() {
+        when(request.method()).thenReturn("GET");
+        assertNull(IdempotencyCache.keyOf(request));
+    }
+
+    @Test
+    public void shouldDistinguishEndpoints() {
+        String clickKey = IdempotencyCache.keyOf(request);
+        when(request.uri()).thenReturn("/wd/hub/session/123/element/1/value");
+        assertNotEquals(clickKey, IdempotencyCache.keyOf(request));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedResponses() {
+        IdempotencyCache cache = new IdempotencyCache(2, 60000);
+        cache.put("a", BODY_HASH, RESPONSE);
+        cache.put("b", BODY_HASH, RESPONSE);
+        cache.get("a", BODY_HASH);
+        cache.put("c", BODY_HASH, RESPONSE);
+        assertEquals(2, cache.size());
+        assertSame(RESPONSE, cache.get("a", BODY_HASH));
+        assertNull(cache.get("b", BODY_HASH));
+    }
+
+    @Test
+    public void shouldExpireResponses() {
+        IdempotencyCache cache = new IdempotencyCache(2, 0);
+        cache.put("a", BODY_HASH, RESPONSE);
+        assertNull(cache.get("a", BODY_HASH));
+        assertEquals(0, cache.size());
+    }
+}
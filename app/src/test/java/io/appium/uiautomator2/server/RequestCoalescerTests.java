@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.server;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Arrays;
+
+import io.appium.uiautomator2.http.IHttpRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+@RunWith(PowerMockRunner.class)
+public class RequestCoalescerTests {
+    private final RequestCoalescer<String> coalescer = new RequestCoalescer<>();
+
+    @Mock
+    private IHttpRequest request;
+
+    @Test
+    public void shouldJoinRequestsInFlight() {
+        assertFalse(coalescer.tryJoin("source", "leader"));
+        assertTrue(coalescer.tryJoin("source", "first"));
+        assertTrue(coalescer.tryJoin("source", "second"));
+        assertEquals(Arrays.asList("first", "second"), coalescer.complete("source"));
+    }
+
+    @Test
+    public void shouldStartNewFlightAfterCompletion() {
+        assertFalse(coalescer.tryJoin("source", "leader"));
+        assertTrue(coalescer.complete("source").isEmpty());
+        assertFalse(coalescer.tryJoin("source", "next"));
+    }
+
+    @Test
+    public void shouldNotJoinDifferentRequests() {
+        assertFalse(coalescer.tryJoin("source", "leader"));
+        assertFalse(coalescer.tryJoin("screenshot", "other"));
+        assertTrue(coalescer.complete("source").isEmpty());
+    }
+
+    @Test
+    public void shouldDistinguishAcceptedContentTypes() {
+        when(request.method()).thenReturn("GET");
+        when(request.uri()).thenReturn("/wd/hub/session/123/screenshot");
+        when(request.header("Accept")).thenReturn("application/json");
+        String jsonKey = RequestCoalescer.keyOf(request);
+        when(request.header("Accept")).thenReturn("image/png");
+        assertNotEquals(jsonKey, RequestCoalescer.keyOf(request));
+    }
+}
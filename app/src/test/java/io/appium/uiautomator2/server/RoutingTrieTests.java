@@ -0,0 +1,111 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.server;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.appium.uiautomator2.handler.request.BaseRequestHandler;
+import io.appium.uiautomator2.http.AppiumResponse;
+import io.appium.uiautomator2.http.IHttpRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class RoutingTrieTests {
+    private RoutingTrie trie;
+    private BaseRequestHandler status;
+    private BaseRequestHandler session;
+    private BaseRequestHandler elementText;
+    private BaseRequestHandler elementAttribute;
+    private BaseRequestHandler appiumElement;
+
+    @Before
+    public void setUp() {
+        trie = new RoutingTrie();
+        status = new TestHandler("/wd/hub/status");
+        session = new TestHandler("/wd/hub/session/:sessionId");
+        elementText = new TestHandler("/wd/hub/session/:sessionId/element/:id/text");
+        elementAttribute = new TestHandler("/wd/hub/session/:sessionId/element/:id/attribute/:name");
+        appiumElement = new TestHandler("/wd/hub/session/:sessionId/appium/element/:id/scroll_to/:elementId");
+        trie.add(status);
+        trie.add(session);
+        trie.add(elementText);
+        trie.add(elementAttribute);
+        trie.add(appiumElement);
+    }
+
+    @Test
+    public void shouldMatchStaticRoute() {
+        RoutingTrie.Match match = trie.match("/wd/hub/status");
+        assertSame(status, match.getHandler());
+        assertEquals(0, match.getParametersCount());
+    }
+
+    @Test
+    public void shouldPreferStaticSegmentsOverParameters() {
+        assertSame(status, trie.match("/wd/hub/status").getHandler());
+        assertSame(session, trie.match("/wd/hub/session/123").getHandler());
+    }
+
+    @Test
+    public void shouldExtractParameters() {
+        RoutingTrie.Match match = trie.match("/wd/hub/session/123/element/456/attribute/text");
+        assertSame(elementAttribute, match.getHandler());
+        assertEquals(3, match.getParametersCount());
+        assertEquals("sessionId", match.getParameterName(0));
+        assertEquals("123", match.getParameterValue(0));
+        assertEquals("456", match.getParameter("id"));
+        assertEquals("text", match.getParameter("name"));
+    }
+
+    @Test
+    public void shouldExtractParametersAfterStaticSegments() {
+        RoutingTrie.Match match = trie.match("/wd/hub/session/1/appium/element/2/scroll_to/3");
+        assertSame(appiumElement, match.getHandler());
+        assertEquals("1", match.getParameter("sessionId"));
+        assertEquals("2", match.getParameter("id"));
+        assertEquals("3", match.getParameter("elementId"));
+    }
+
+    @Test
+    public void shouldIgnoreQueryStringAndTrailingSeparator() {
+        assertSame(elementText, trie.match("/wd/hub/session/1/element/2/text?foo=bar").getHandler());
+        assertSame(elementText, trie.match("/wd/hub/session/1/element/2/text/").getHandler());
+    }
+
+    @Test
+    public void shouldReturnNullForUnknownRoutes() {
+        assertNull(trie.match("/wd/hub/session/1/element/2"));
+        assertNull(trie.match("/wd/hub/session/1/element/2/text/3"));
+        assertNull(trie.match("/wd/hub/unknown"));
+        assertNull(trie.match(""));
+        assertNull(trie.match(null));
+    }
+
+    private static class TestHandler extends BaseRequestHandler {
+        TestHandler(String mappedUri) {
+            super(mappedUri);
+        }
+
+        @Override
+        public AppiumResponse handle(IHttpRequest request) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.server.metrics;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import io.appium.uiautomator2.utils.ServerTiming;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FlightRecorderTests {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldDumpRecordedCommands() throws JSONException {
+        FlightRecorder recorder = new FlightRecorder(4);
+        ServerTiming timing = new ServerTiming();
+        timing.add("idle", TimeUnit.MILLISECONDS.toNanos(5));
+        recorder.record("POST", "/wd/hub/session/123/element", "123",
+                new JSONObject().put("using", "id"), 14, 7, 42, TimeUnit.MILLISECONDS.toNanos(10),
+                timing);
+
+        JSONArray dump = recorder.dump();
+        assertEquals(1, dump.length());
+        JSONObject record = dump.getJSONObject(0);
+        assertEquals("POST", record.getString("method"));
+        assertEquals("/wd/hub/session/123/element", record.getString("uri"));
+        assertEquals("123", record.getString("sessionId"));
+        assertEquals("{\"using\":\"id\"}", record.getString("payload"));
+        assertEquals(14, record.getLong("requestBytes"));
+        assertEquals(7, record.getInt("status"));
+        assertEquals(42, record.getLong("responseBytes"));
+        assertEquals(10.0, record.getDouble("durationMs"), 0.001);
+        assertEquals("idle;dur=5.000", record.getString("phases"));
+    }
+
+    @Test
+    public void shouldKeepTheMostRecentCommandsOnly() throws JSONException {
+        FlightRecorder recorder = new FlightRecorder(2);
+        for (int i = 0; i < 5; i++) {
+            recorder.record("GET", "/wd/hub/" + i, null, null, 0, 0, 0, 0, null);
+        }
+        JSONArray dump = recorder.dump();
+        assertEquals(2, dump.length());
+        assertEquals("/wd/hub/3", dump.getJSONObject(0).getString("uri"));
+        assertEquals("/wd/hub/4", dump.getJSONObject(1).getString("uri"));
+        assertTrue(dump.getJSONObject(0).isNull("payload"));
+    }
+
+    @Test
+    public void shouldNotKeepLargePayloads() throws JSONException {
+        FlightRecorder recorder = new FlightRecorder(1);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            text.append('a');
+        }
+        recorder.record("POST", "/wd/hub/keys", null, new JSONObject().put("text", text),
+                2011, 0, 0, 0, null);
+        JSONObject record = recorder.dump().getJSONObject(0);
+        assertTrue(record.isNull("payload"));
+        assertEquals(2011, record.getLong("requestBytes"));
+    }
+
+    @Test
+    public void shouldDumpToFile() throws JSONException {
+        FlightRecorder recorder = new FlightRecorder(1);
+        assertNull(recorder.dumpToFile());
+
+        recorder.setDumpDirectory(folder.getRoot());
+        recorder.record("GET", "/wd/hub/status", null, null, 0, 0, 0, 0, null);
+        File file = recorder.dumpToFile();
+        assertTrue(file != null && file.length() > 0);
+        assertEquals(file, recorder.dumpToFile());
+        assertEquals(1, folder.getRoot().list().length);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.server.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTests {
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    public void shouldReportZeroIfEmpty() {
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileNanos(0.5));
+    }
+
+    @Test
+    public void shouldCountDurationsInBuckets() {
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(250));
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(251));
+        histogram.record(TimeUnit.HOURS.toNanos(1));
+        assertEquals(1, histogram.getBucketCount(0));
+        assertEquals(1, histogram.getBucketCount(1));
+        assertEquals(1, histogram.getBucketCount(LatencyHistogram.getBucketsCount() - 1));
+        assertEquals(3, histogram.getCount());
+    }
+
+    @Test
+    public void shouldEstimatePercentilesWithinBucketBounds() {
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertWithin(TimeUnit.MILLISECONDS.toNanos(50), histogram.getPercentileNanos(0.5));
+        assertWithin(TimeUnit.MILLISECONDS.toNanos(95), histogram.getPercentileNanos(0.95));
+        assertWithin(TimeUnit.MILLISECONDS.toNanos(99), histogram.getPercentileNanos(0.99));
+    }
+
+    private static void assertWithin(long expectedNanos, long actualNanos) {
+        // buckets are twice as wide as the previous ones
+        assertTrue(actualNanos + " is too far from " + expectedNanos,
+                actualNanos > expectedNanos / 2 && actualNanos <= expectedNanos * 2);
+    }
+}
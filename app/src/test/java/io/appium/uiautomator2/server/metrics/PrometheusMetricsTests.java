@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.server.metrics;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import io.appium.uiautomator2.handler.Status;
+import io.appium.uiautomator2.model.ElementRegistry;
+import io.appium.uiautomator2.server.CommandExecutor;
+import io.appium.uiautomator2.server.WDStatus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PrometheusMetricsTests {
+
+    @Test
+    public void shouldExposeRouteMetrics() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        Status handler = new Status("/wd/hub/status");
+        registry.register("GET", handler);
+
+        registry.requestStarted();
+        assertEquals(1, registry.getInFlight());
+        registry.requestFinished(handler, System.nanoTime(), WDStatus.SUCCESS.code(), 0, 100);
+        registry.requestStarted();
+        registry.requestFinished(handler, System.nanoTime(), WDStatus.NO_SUCH_ELEMENT.code(), 10, 50);
+        assertEquals(0, registry.getInFlight());
+
+        String text = render(registry);
+        String labels = "{method=\"GET\",route=\"/wd/hub/status\"";
+        assertTrue(text, text.contains("uiautomator2_requests_total" + labels + "} 2\n"));
+        assertTrue(text, text.contains("uiautomator2_errors_total" + labels
+                + ",status=\"NO_SUCH_ELEMENT\"} 1\n"));
+        assertTrue(text, text.contains("uiautomator2_request_bytes_total" + labels + "} 10\n"));
+        assertTrue(text, text.contains("uiautomator2_response_bytes_total" + labels + "} 150\n"));
+        assertTrue(text, text.contains("uiautomator2_request_duration_seconds_bucket" + labels
+                + ",le=\"+Inf\"} 2\n"));
+        assertTrue(text, text.contains("uiautomator2_request_duration_seconds_count" + labels + "} 2\n"));
+        assertTrue(text, text.contains("uiautomator2_request_latency_seconds" + labels
+                + ",quantile=\"0.99\"}"));
+        assertTrue(text, text.contains("uiautomator2_request_latency_seconds_count" + labels + "} 2\n"));
+        assertTrue(text, text.contains("uiautomator2_request_latency_seconds_sum" + labels + "} "));
+        assertTrue(text, text.contains("uiautomator2_requests_in_flight 0\n"));
+        assertTrue(text, text.contains("uiautomator2_commands_rejected_total 0\n"));
+        assertTrue(text, text.contains("uiautomator2_element_cache_size 0\n"));
+        assertTrue(text, text.contains("uiautomator2_element_cache_evictions_total 0\n"));
+    }
+
+    @Test
+    public void shouldCountStreamsInFlightUntilTheyEnd() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        Status handler = new Status("/wd/hub/status");
+        registry.register("GET", handler);
+
+        registry.requestStarted();
+        registry.streamStarted();
+        registry.requestFinished(handler, System.nanoTime(), WDStatus.SUCCESS.code(), 0, 0);
+        assertTrue(render(registry).contains("uiautomator2_requests_in_flight 1\n"));
+        registry.streamEnded();
+        assertEquals(0, registry.getInFlight());
+    }
+
+    @Test
+    public void shouldSkipRoutesWithoutRequests() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.register("GET", new Status("/wd/hub/status"));
+        assertFalse(render(registry).contains("/wd/hub/status"));
+    }
+
+    private static String render(MetricsRegistry registry) throws IOException {
+        StringWriter writer = new StringWriter();
+        new PrometheusMetrics(registry, new CommandExecutor(), new ElementRegistry()).writeTo(writer);
+        return writer.toString();
+    }
+}
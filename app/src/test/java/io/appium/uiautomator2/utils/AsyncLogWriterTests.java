@@ -0,0 +1,116 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncLogWriterTests {
+
+    @Test
+    public void shouldWriteMessagesInOrder() throws InterruptedException {
+        final List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch written = new CountDownLatch(3);
+        AsyncLogWriter writer = new AsyncLogWriter(4, new AsyncLogWriter.Sink() {
+            @Override
+            public void write(int priority, String message, Throwable throwable) {
+                messages.add(message);
+                written.countDown();
+            }
+        });
+        writer.write(android.util.Log.INFO, "a", null);
+        writer.write(android.util.Log.INFO, "b", null);
+        writer.write(android.util.Log.INFO, "c", null);
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("a", "b", "c"), messages);
+    }
+
+    @Test
+    public void shouldDropMessagesInsteadOfBlocking() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch unblock = new CountDownLatch(1);
+        AsyncLogWriter writer = new AsyncLogWriter(2, new AsyncLogWriter.Sink() {
+            @Override
+            public void write(int priority, String message, Throwable throwable) {
+                started.countDown();
+                try {
+                    unblock.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        });
+        try {
+            assertTrue(writer.write(android.util.Log.INFO, "blocks the sink", null));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertTrue(writer.write(android.util.Log.INFO, "queued", null));
+            assertTrue(writer.write(android.util.Log.INFO, "queued", null));
+            assertFalse(writer.write(android.util.Log.INFO, "dropped", null));
+            assertEquals(1, writer.getDroppedCount());
+        } finally {
+            unblock.countDown();
+        }
+    }
+
+    @Test
+    public void shouldFlushQueuedMessages() {
+        final List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+        AsyncLogWriter writer = new AsyncLogWriter(4, new AsyncLogWriter.Sink() {
+            @Override
+            public void write(int priority, String message, Throwable throwable) {
+                messages.add(message);
+            }
+        });
+        writer.write(android.util.Log.ERROR, "a", null);
+        writer.write(android.util.Log.ERROR, "b", null);
+        assertTrue(writer.flush(5000));
+        assertEquals(Arrays.asList("a", "b"), messages);
+    }
+
+    @Test
+    public void shouldGiveUpFlushingAfterTimeout() {
+        final CountDownLatch unblock = new CountDownLatch(1);
+        AsyncLogWriter writer = new AsyncLogWriter(2, new AsyncLogWriter.Sink() {
+            @Override
+            public void write(int priority, String message, Throwable throwable) {
+                try {
+                    unblock.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        });
+        try {
+            writer.write(android.util.Log.INFO, "blocks the sink", null);
+            assertFalse(writer.flush(50));
+        } finally {
+            unblock.countDown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequirePowerOfTwoCapacity() {
+        new AsyncLogWriter(3, null);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.utils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import io.appium.uiautomator2.common.exceptions.CommandCancelledException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CancellationTokenTests {
+
+    @After
+    public void tearDown() {
+        CancellationToken.detach();
+    }
+
+    @Test
+    public void shouldNotBeCancelledByDefault() {
+        CancellationToken token = new CancellationToken();
+        assertFalse(token.isCancelled());
+        assertNull(token.getCancellationReason());
+        token.throwIfCancelled();
+    }
+
+    @Test
+    public void shouldKeepTheFirstReason() {
+        CancellationToken token = new CancellationToken();
+        token.cancel("first");
+        token.cancel("second");
+        assertEquals("first", token.getCancellationReason());
+    }
+
+    @Test
+    public void shouldBeCancelledWithParent() {
+        CancellationToken connection = new CancellationToken();
+        CancellationToken request = new CancellationToken(connection);
+        connection.cancel("disconnected");
+        assertTrue(request.isCancelled());
+        assertEquals("disconnected", request.getCancellationReason());
+    }
+
+    @Test
+    public void shouldNotCancelParent() {
+        CancellationToken connection = new CancellationToken();
+        new CancellationToken(connection).cancel("done");
+        assertFalse(connection.isCancelled());
+    }
+
+    @Test
+    public void shouldBeCancelledAfterDeadline() {
+        CancellationToken token = new CancellationToken();
+        token.setTimeout(System.nanoTime(), 60000);
+        assertFalse(token.isCancelled());
+        token.setTimeout(System.nanoTime() - 2000000L, 1);
+        assertTrue(token.isCancelled());
+    }
+
+    @Test
+    public void shouldInheritDeadlineFromParent() {
+        CancellationToken parent = new CancellationToken();
+        CancellationToken token = new CancellationToken(parent);
+        assertFalse(token.hasDeadline());
+        parent.setTimeout(System.nanoTime(), 60000);
+        assertTrue(token.hasDeadline());
+    }
+
+    @Test
+    public void shouldDropDeadlineButKeepParent() {
+        CancellationToken connection = new CancellationToken();
+        CancellationToken request = new CancellationToken(connection);
+        request.setTimeout(System.nanoTime() - 2000000L, 1);
+        CancellationToken stream = request.withoutDeadline();
+        assertTrue(request.isCancelled());
+        assertFalse(stream.isCancelled());
+        connection.cancel("disconnected");
+        assertTrue(stream.isCancelled());
+    }
+
+    @Test(expected = CommandCancelledException.class)
+    public void shouldStopTheCurrentCommand() {
+        CancellationToken token = new CancellationToken();
+        CancellationToken.attach(token);
+        assertSame(token, CancellationToken.current());
+        token.cancel("disconnected");
+        CancellationToken.checkCurrent();
+    }
+
+    @Test
+    public void shouldIgnoreMissingCurrentToken() {
+        assertNull(CancellationToken.current());
+        CancellationToken.checkCurrent();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.utils;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.StringReader;
+
+import io.appium.uiautomator2.test.BuildConfig;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class)
+public class JsonStreamParserTests {
+
+    private static JSONObject parse(String json) throws JSONException {
+        return JsonStreamParser.parseObject(new StringReader(json));
+    }
+
+    @Test
+    public void shouldParseNestedValues() throws JSONException {
+        JSONObject result = parse("{\"actions\":[{\"type\":\"pointer\",\"actions\":" +
+                "[{\"type\":\"pointerMove\",\"x\":10,\"duration\":0.5}]}],\"flag\":true,\"none\":null}");
+
+        JSONArray actions = result.getJSONArray("actions");
+        JSONObject action = actions.getJSONObject(0).getJSONArray("actions").getJSONObject(0);
+        assertEquals("pointerMove", action.getString("type"));
+        assertEquals(10, action.get("x"));
+        assertEquals(0.5, action.get("duration"));
+        assertEquals(true, result.get("flag"));
+        assertTrue(result.isNull("none"));
+    }
+
+    @Test
+    public void shouldUseTheSameNumberTypesAsJSONTokener() throws JSONException {
+        JSONObject result = parse("{\"int\":1,\"long\":12345678901,\"double\":1e3," +
+                "\"huge\":123456789012345678901234567890}");
+
+        assertEquals(Integer.class, result.get("int").getClass());
+        assertEquals(Long.class, result.get("long").getClass());
+        assertEquals(Double.class, result.get("double").getClass());
+        assertEquals(Double.class, result.get("huge").getClass());
+    }
+
+    @Test
+    public void shouldUnescapeStrings() throws JSONException {
+        assertEquals("a\"b\n\u00e9", parse("{\"text\":\"a\\\"b\\n\\u00e9\"}").getString("text"));
+    }
+
+    @Test(expected = JSONException.class)
+    public void shouldRejectMalformedJson() throws JSONException {
+        parse("{\"actions\":[}");
+    }
+
+    @Test(expected = JSONException.class)
+    public void shouldRejectNonObjects() throws JSONException {
+        parse("[1, 2]");
+    }
+
+    @Test(expected = JSONException.class)
+    public void shouldRejectTrailingContent() throws JSONException {
+        parse("{} {}");
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.appium.uiautomator2.utils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ServerTimingTests {
+
+    @After
+    public void tearDown() {
+        ServerTiming.stop();
+    }
+
+    @Test
+    public void shouldFormatPhasesInOrder() {
+        ServerTiming timing = ServerTiming.start();
+        timing.add("idle", TimeUnit.MICROSECONDS.toNanos(1500));
+        timing.add("render", TimeUnit.MILLISECONDS.toNanos(2));
+        assertEquals("idle;dur=1.500, render;dur=2.000", timing.toHeaderValue());
+    }
+
+    @Test
+    public void shouldSumUpRepeatedPhases() {
+        ServerTiming timing = ServerTiming.start();
+        timing.add("idle", TimeUnit.MILLISECONDS.toNanos(1));
+        timing.add("idle", TimeUnit.MILLISECONDS.toNanos(2));
+        assertEquals("idle;dur=3.000", timing.toHeaderValue());
+    }
+
+    @Test
+    public void shouldMarkPhasesOfTheCurrentThreadOnly() {
+        ServerTiming.mark("idle", System.nanoTime());
+        assertNull(ServerTiming.current());
+
+        ServerTiming timing = ServerTiming.start();
+        assertSame(timing, ServerTiming.current());
+        ServerTiming.mark("idle", System.nanoTime());
+        ServerTiming.stop();
+        ServerTiming.mark("root", System.nanoTime());
+        assertEquals(1, timing.toHeaderValue().split(",").length);
+    }
+
+    @Test
+    public void shouldCopyPhasesMarkedSoFar() {
+        ServerTiming timing = ServerTiming.start();
+        timing.add("queue", TimeUnit.MILLISECONDS.toNanos(1));
+        ServerTiming copy = timing.copy();
+        timing.add("render", TimeUnit.MILLISECONDS.toNanos(2));
+        copy.add("queue", TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertEquals("queue;dur=1.000, render;dur=2.000", timing.toHeaderValue());
+        assertEquals("queue;dur=2.000", copy.toHeaderValue());
+        ServerTiming.attach(copy);
+        assertSame(copy, ServerTiming.current());
+    }
+}